@@ -0,0 +1,7 @@
+package com.casado.sb3.audit;
+
+public enum AuditAction {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,18 @@
+package com.casado.sb3.audit;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * One committed change of an audited entity, captured on the writing thread and persisted later
+ * by the {@link AuditTrailWriter}. {@code state} holds the audited fields after the change.
+ */
+public record AuditEvent(
+        String entityType,
+        Long entityId,
+        AuditAction action,
+        Long entityVersion,
+        String changedBy,
+        LocalDateTime changedAt,
+        Map<String, Object> state) {
+}
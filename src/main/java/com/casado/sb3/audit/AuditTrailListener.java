@@ -0,0 +1,104 @@
+package com.casado.sb3.audit;
+
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.repository.projection.EmployeeSummary;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Captures department and employee changes as {@link AuditEvent}s and hands them to the
+ * {@link AuditTrailWriter} once the surrounding transaction commits. Only a snapshot of the
+ * audited fields is taken on the writing thread; nothing touches the database here.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditTrailListener {
+
+    private final AuditTrailWriter auditTrailWriter;
+    private final AuditorAware<String> auditorAware;
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        capture(entity, AuditAction.CREATE);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        capture(entity, AuditAction.UPDATE);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        capture(entity, AuditAction.DELETE);
+    }
+
+    /**
+     * Captures employees changed by a bulk statement, which bypasses the entity callbacks, from
+     * the state they were given.
+     */
+    public void captureAll(Collection<EmployeeSummary> employees, AuditAction action) {
+        String changedBy = auditorAware.getCurrentAuditor().orElse(null);
+        LocalDateTime changedAt = LocalDateTime.now();
+        capture(employees.stream()
+                .map(employee -> {
+                    Map<String, Object> state = new LinkedHashMap<>();
+                    state.put("name", employee.name());
+                    state.put("departmentId", employee.departmentId());
+                    return new AuditEvent(Employee.class.getSimpleName(), employee.id(), action,
+                            employee.version(), changedBy, changedAt, state);
+                })
+                .toList());
+    }
+
+    private void capture(Object entity, AuditAction action) {
+        AuditEvent event = toEvent(entity, action);
+        if (event != null) {
+            capture(List.of(event));
+        }
+    }
+
+    private void capture(List<AuditEvent> events) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            events.forEach(auditTrailWriter::offer);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                events.forEach(auditTrailWriter::offer);
+            }
+        });
+    }
+
+    private AuditEvent toEvent(Object entity, AuditAction action) {
+        Map<String, Object> state = new LinkedHashMap<>();
+        String changedBy = auditorAware.getCurrentAuditor().orElse(null);
+        return switch (entity) {
+            case Employee employee -> {
+                state.put("name", employee.getName());
+                state.put("departmentId", employee.getDepartment() == null ? null : employee.getDepartment().getId());
+                yield new AuditEvent(Employee.class.getSimpleName(), employee.getId(), action,
+                        employee.getVersion(), changedBy, LocalDateTime.now(), state);
+            }
+            case Department department -> {
+                state.put("name", department.getName());
+                yield new AuditEvent(Department.class.getSimpleName(), department.getId(), action,
+                        department.getVersion(), changedBy, LocalDateTime.now(), state);
+            }
+            default -> null;
+        };
+    }
+}
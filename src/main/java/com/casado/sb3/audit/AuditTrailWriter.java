@@ -0,0 +1,219 @@
+package com.casado.sb3.audit;
+
+import com.casado.sb3.constants.ProjectConstants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind sink of the audit trail. Producers {@link #offer(AuditEvent) offer} events to a
+ * bounded, lock-free queue and return immediately; a single background thread drains it and
+ * inserts into {@code audit_log} in JDBC batches. When the queue is full new events are dropped
+ * rather than slowing writers down, and counted in {@code app.audit.events{outcome=dropped}}.
+ * A batch that fails is retried up to {@code app.audit.max-attempts} times, then written row by
+ * row so that only the events at fault are lost: those, and events that cannot be serialized,
+ * go to the {@code audit.dead-letter} log and are counted as {@code outcome=failed}. Pending
+ * events are flushed on shutdown.
+ */
+@Slf4j
+@Component
+public class AuditTrailWriter implements SmartLifecycle {
+
+    private static final String INSERT_SQL = "insert into audit_log "
+            + "(entity_type, entity_id, action, entity_version, changed_by, changed_at, details) "
+            + "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final Logger DEAD_LETTER = LoggerFactory.getLogger("audit.dead-letter");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration flushInterval;
+
+    private final Queue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    // built on the DataSource: the JdbcTemplate bean waits for the entity manager factory, whose
+    // entity listeners need this writer
+    public AuditTrailWriter(DataSource dataSource, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${app.audit.queue-capacity:10000}") int capacity,
+                            @Value("${app.audit.batch-size:500}") int batchSize,
+                            @Value("${app.audit.max-attempts:3}") int maxAttempts,
+                            @Value("${app.audit.flush-interval:200ms}") Duration flushInterval) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.flushInterval = flushInterval;
+        this.written = events(meterRegistry, "written");
+        this.dropped = events(meterRegistry, "dropped");
+        this.failed = events(meterRegistry, "failed");
+        Gauge.builder("app.audit.queue.size", queued, AtomicInteger::get)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    private static Counter events(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("app.audit.events")
+                .description("Audit events by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enqueues an event without blocking.
+     *
+     * @return false if the queue was full and the event was dropped.
+     */
+    public boolean offer(AuditEvent event) {
+        int size = queued.incrementAndGet();
+        if (size > capacity) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.offer(event);
+        if (size >= batchSize) {
+            LockSupport.unpark(worker); // a full batch is ready, do not wait for the interval
+        }
+        return true;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("audit-writer").daemon().start(this::drainLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // still draining while requests and jobs finish, flushed last
+        return ProjectConstants.BACKGROUND_WRITER_PHASE;
+    }
+
+    private void drainLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || queued.get() > 0) {
+            AuditEvent event;
+            while (batch.size() < batchSize && (event = queue.poll()) != null) {
+                queued.decrementAndGet();
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(flushInterval.toNanos());
+                continue;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        List<Row> rows = new ArrayList<>(batch.size());
+        for (AuditEvent event : batch) {
+            try {
+                rows.add(new Row(event, objectMapper.writeValueAsString(event.state())));
+            } catch (JsonProcessingException ex) {
+                deadLetter(event, ex);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), AuditTrailWriter::setValues);
+                written.increment(rows.size());
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Failed to write {} audit events (attempt {} of {})", rows.size(), attempt, maxAttempts, ex);
+                if (attempt < maxAttempts) {
+                    LockSupport.parkNanos(flushInterval.toNanos() * attempt);
+                }
+            }
+        }
+        // the batch keeps failing: isolate the rows at fault
+        for (Row row : rows) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, ps -> setValues(ps, row));
+                written.increment();
+            } catch (RuntimeException ex) {
+                deadLetter(row.event(), ex);
+            }
+        }
+    }
+
+    private static void setValues(PreparedStatement ps, Row row) throws SQLException {
+        AuditEvent event = row.event();
+        ps.setString(1, event.entityType());
+        ps.setLong(2, event.entityId());
+        ps.setString(3, event.action().name());
+        if (event.entityVersion() == null) {
+            ps.setNull(4, Types.BIGINT);
+        } else {
+            ps.setLong(4, event.entityVersion());
+        }
+        ps.setString(5, event.changedBy());
+        ps.setTimestamp(6, Timestamp.valueOf(event.changedAt()));
+        ps.setString(7, row.details());
+    }
+
+    private void deadLetter(AuditEvent event, Exception cause) {
+        failed.increment();
+        DEAD_LETTER.error("Audit event not written: {}", event, cause);
+    }
+
+    private record Row(AuditEvent event, String details) {
+    }
+}
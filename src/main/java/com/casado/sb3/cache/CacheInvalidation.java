@@ -0,0 +1,32 @@
+package com.casado.sb3.cache;
+
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One committed change that makes cached copies stale: a department or an employee, identified
+ * by its type and ID. Kept to plain values so transports can serialize it as they see fit.
+ *
+ * @param entityType the simple entity name, {@code Department} or {@code Employee}.
+ * @param id the entity ID, null to invalidate every entity of the type.
+ * @param departmentIds for an employee, the departments whose employee lists changed.
+ */
+public record CacheInvalidation(String entityType, Long id, List<Long> departmentIds) {
+
+    public static CacheInvalidation department(Long id) {
+        return new CacheInvalidation(Department.class.getSimpleName(), id, List.of());
+    }
+
+    public static CacheInvalidation employee(Long id, Long... departmentIds) {
+        return new CacheInvalidation(Employee.class.getSimpleName(), id,
+                Arrays.stream(departmentIds).filter(Objects::nonNull).distinct().toList());
+    }
+
+    public boolean isDepartment() {
+        return Department.class.getSimpleName().equals(entityType);
+    }
+}
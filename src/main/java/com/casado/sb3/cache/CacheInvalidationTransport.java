@@ -0,0 +1,22 @@
+package com.casado.sb3.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * SPI to keep the caches of several application nodes coherent. Each node's
+ * {@link SecondLevelCacheInvalidator} publishes the invalidations of its own committed writes
+ * and applies those received from the other nodes; a transport only has to carry them, e.g.
+ * over a message broker topic or a database notification channel. Without any transport bean
+ * the caches are node-local.
+ * <p>
+ * {@link #publish} is called on the committing thread and must not block.
+ */
+public interface CacheInvalidationTransport {
+
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * Registers the handler of invalidations published by other nodes.
+     */
+    void subscribe(Consumer<CacheInvalidation> handler);
+}
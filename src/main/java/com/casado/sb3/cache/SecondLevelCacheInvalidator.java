@@ -0,0 +1,210 @@
+package com.casado.sb3.cache;
+
+import com.casado.sb3.coalesce.SingleFlight;
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bridges the node-local caches (the Hibernate second-level cache and the service caches) with
+ * the {@link CacheInvalidationTransport}s. Committed department and employee writes are published
+ * from Hibernate post-commit listeners, so rolled-back writes never reach other nodes, and
+ * invalidations received from other nodes are applied with {@link #apply}. Committed writes
+ * also start a new {@link SingleFlight} generation and drop the {@link SerializedResponseCache}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheInvalidator {
+
+    private static final String EMPLOYEES_ROLE = Department.class.getName() + ".employees";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager cacheManager;
+    private final ObjectProvider<CacheInvalidationTransport> transports;
+    private final SingleFlight singleFlight;
+    private final SerializedResponseCache serializedResponseCache;
+
+    @PostConstruct
+    public void register() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        CommitListener listener = new CommitListener();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+        transports.orderedStream().forEach(transport -> transport.subscribe(this::apply));
+    }
+
+    /**
+     * Evicts the cached copies named by an invalidation received from another node. Cached
+     * query results are dropped as well, since they may contain the changed rows.
+     */
+    public void apply(CacheInvalidation invalidation) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache();
+        if (invalidation.isDepartment()) {
+            if (invalidation.id() == null) {
+                cache.evictEntityData(Department.class);
+                cache.evictCollectionData(EMPLOYEES_ROLE);
+                clear(ProjectConstants.CACHE_DEPARTMENTS);
+            } else {
+                cache.evictEntityData(Department.class, invalidation.id());
+                cache.evictCollectionData(EMPLOYEES_ROLE, invalidation.id());
+                evict(ProjectConstants.CACHE_DEPARTMENTS, invalidation.id());
+            }
+            clear(ProjectConstants.CACHE_EMPLOYEES); // departmentName
+        } else {
+            if (invalidation.id() == null) {
+                cache.evictEntityData(Employee.class);
+                cache.evictCollectionData(EMPLOYEES_ROLE);
+                clear(ProjectConstants.CACHE_EMPLOYEES);
+            } else {
+                cache.evictEntityData(Employee.class, invalidation.id());
+                invalidation.departmentIds()
+                        .forEach(departmentId -> cache.evictCollectionData(EMPLOYEES_ROLE, departmentId));
+                evict(ProjectConstants.CACHE_EMPLOYEES, invalidation.id());
+            }
+            clear(ProjectConstants.CACHE_DEPARTMENTS); // embedded employee lists
+        }
+        cache.evictQueryRegions();
+        serializedResponseCache.clear();
+    }
+
+    /**
+     * Publishes an invalidation for a change made behind Hibernate's back, e.g. by a bulk
+     * statement, after evicting it locally.
+     */
+    public void invalidate(CacheInvalidation invalidation) {
+        apply(invalidation);
+        publish(invalidation);
+    }
+
+    /**
+     * Like {@link #invalidate} once the surrounding transaction commits, or right away without one.
+     */
+    public void invalidateAfterCommit(CacheInvalidation invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(invalidation);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(invalidation);
+            }
+        });
+    }
+
+    private void publish(CacheInvalidation invalidation) {
+        if (invalidation == null) {
+            return;
+        }
+        singleFlight.newGeneration(); // reads issued from now on must see this write
+        serializedResponseCache.clear();
+        transports.orderedStream().forEach(transport -> {
+            try {
+                transport.publish(invalidation);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to publish cache invalidation {}: {}", invalidation, ex.getMessage());
+            }
+        });
+    }
+
+    // immediate variants: this runs after commit, where the transaction-aware caches would
+    // defer evict/clear to a synchronization that never fires
+    private void evict(String cacheName, Long key) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evictIfPresent(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    private static Long departmentId(EntityPersister persister, Object[] state) {
+        if (state == null) {
+            return null;
+        }
+        int index = persister.getPropertyIndex("department");
+        return state[index] instanceof Department department ? department.getId() : null;
+    }
+
+    private class CommitListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+            PostCommitDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            publish(invalidation(event.getEntity(), event.getId(), event.getPersister(), event.getState(), null));
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            publish(invalidation(event.getEntity(), event.getId(), event.getPersister(), event.getState(),
+                    event.getOldState()));
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            publish(invalidation(event.getEntity(), event.getId(), event.getPersister(), event.getDeletedState(),
+                    null));
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+            // nothing was committed, nothing to invalidate
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+            // nothing was committed, nothing to invalidate
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+            // nothing was committed, nothing to invalidate
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            Class<?> type = persister.getMappedClass();
+            return type == Department.class || type == Employee.class;
+        }
+
+        private CacheInvalidation invalidation(Object entity, Object id, EntityPersister persister,
+                                               Object[] state, Object[] oldState) {
+            if (entity instanceof Department) {
+                return CacheInvalidation.department((Long) id);
+            }
+            if (!(entity instanceof Employee)) {
+                return null;
+            }
+            return CacheInvalidation.employee((Long) id, departmentId(persister, state),
+                    departmentId(persister, oldState));
+        }
+    }
+}
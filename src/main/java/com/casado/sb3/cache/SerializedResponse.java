@@ -0,0 +1,12 @@
+package com.casado.sb3.cache;
+
+/**
+ * A response body serialized once, as JSON and gzip-compressed JSON, together with the ETag
+ * of the state it was rendered from. The arrays are never modified after construction.
+ */
+public record SerializedResponse(String eTag, byte[] json, byte[] gzip) {
+
+    public byte[] body(boolean gzipAccepted) {
+        return gzipAccepted ? gzip : json;
+    }
+}
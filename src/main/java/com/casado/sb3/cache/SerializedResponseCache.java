@@ -0,0 +1,101 @@
+package com.casado.sb3.cache;
+
+import com.casado.sb3.coalesce.SingleFlight;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the serialized bytes of hot collection responses, one entry per response name, so
+ * repeated reads skip mapping and Jackson and are written out as they are. An entry is only
+ * served for the ETag it was rendered for, which is built from the {@code table_version}
+ * counters every write moves forward. Its body is loaded after that ETag was read and never
+ * joins a load that started earlier, so it is never older than the ETag it is served for; at
+ * worst it is newer, which only costs the client one more full response. Entries are also
+ * dropped after every committed write, see {@link SecondLevelCacheInvalidator}.
+ * Hits and misses are counted in {@code app.response.cache.requests{name, result}}.
+ */
+@Component
+@RequiredArgsConstructor
+public class SerializedResponseCache {
+
+    private final ConcurrentHashMap<String, SerializedResponse> responses = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final SingleFlight singleFlight;
+
+    /**
+     * Returns the cached response for the given ETag, rendering and caching it first if needed.
+     * The body is loaded and serialized outside the map's locks; concurrent misses for the same
+     * ETag share one rendering.
+     *
+     * @param name the response name.
+     * @param eTag the ETag of the current state, read before calling this.
+     * @param body supplies the body to serialize on a miss. It must read the database itself
+     *             rather than join a read in flight, which may have started before the ETag was read.
+     * @return the serialized response.
+     */
+    public SerializedResponse get(String name, String eTag, Supplier<?> body) {
+        SerializedResponse cached = responses.get(name);
+        if (cached != null && cached.eTag().equals(eTag)) {
+            count(name, "hit");
+            return cached;
+        }
+        count(name, "miss");
+        SerializedResponse rendered = render(name, eTag, body);
+        // keep an entry rendered meanwhile for the same state, replace any other
+        return responses.merge(name, rendered,
+                (current, fresh) -> current.eTag().equals(fresh.eTag()) ? current : fresh);
+    }
+
+    public void clear() {
+        responses.clear();
+    }
+
+    private SerializedResponse render(String name, String eTag, Supplier<?> body) {
+        try {
+            // keyed by the ETag, so only callers that read the same state share a rendering
+            return (SerializedResponse) singleFlight.execute(SerializedResponseCache.class.getSimpleName() + "." + name,
+                    List.of(eTag), () -> serialize(eTag, body.get()));
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Failed to render response " + name, ex);
+        }
+    }
+
+    private SerializedResponse serialize(String eTag, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            return new SerializedResponse(eTag, json, compressed.toByteArray());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize response", ex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void count(String name, String result) {
+        Counter.builder("app.response.cache.requests")
+                .description("Reads of pre-serialized responses")
+                .tag("name", name)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,15 @@
+package com.casado.sb3.coalesce;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a read whose concurrent identical calls (same method, equal arguments) share one
+ * execution: the first caller runs it, the others wait for and receive its result or exception.
+ * When the result was shared, every caller gets its own copy, so the return type must survive a
+ * JSON round trip. See {@link SingleFlight}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Coalesced {
+}
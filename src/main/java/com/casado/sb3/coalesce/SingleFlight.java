@@ -0,0 +1,132 @@
+package com.casado.sb3.coalesce;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single-flight execution of identical calls: while a call is in flight, callers with the same
+ * key join it instead of running their own. Keys carry a write generation, advanced by
+ * {@link #newGeneration()} after every committed write, so a read issued after a write never
+ * joins a load that started before it.
+ * <p>
+ * A result shared with followers is never handed out itself: when a call had followers, each
+ * caller, the leader included, receives its own copy made by the {@code share} function, so no
+ * caller can see another one's changes to a mutable result.
+ * <p>
+ * Each call is counted in {@code app.singleflight.calls{method, role}}: {@code leader} calls ran,
+ * {@code follower} calls shared a leader's result; the coalescing ratio is
+ * followers / (leaders + followers).
+ */
+@Component
+public class SingleFlight {
+
+    private final ConcurrentHashMap<Key, Flight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("app.singleflight.in.flight", inFlight, ConcurrentHashMap::size)
+                .description("Distinct calls currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call, or joins the identical call already in flight. The result is handed out
+     * as is; use {@link #execute(String, List, Call, UnaryOperator)} for mutable results.
+     */
+    public Object execute(String method, List<Object> args, Call call) throws Throwable {
+        return execute(method, args, call, UnaryOperator.identity());
+    }
+
+    /**
+     * Runs the call, or joins the identical call already in flight.
+     *
+     * @param method the name of the call, used in the key and as metric tag.
+     * @param args the arguments of the call, compared with {@code equals}.
+     * @param call the call itself.
+     * @param share copies a result for each caller when it is shared; never given null.
+     * @return the result of this call or a copy of it, or a copy of the joined one's.
+     * @throws Throwable the exception thrown by this call or by the joined one.
+     */
+    public Object execute(String method, List<Object> args, Call call, UnaryOperator<Object> share) throws Throwable {
+        Key key = new Key(method, args, generation.get());
+        Flight flight = new Flight();
+        // joining counts the follower under the map's lock, so the leader's removal sees it
+        Flight leader = inFlight.compute(key, (k, current) -> {
+            if (current == null) {
+                return flight;
+            }
+            current.followers.incrementAndGet();
+            return current;
+        });
+        if (leader != flight) {
+            count(method, "follower");
+            Object result = await(leader.result);
+            return result == null ? null : share.apply(result);
+        }
+
+        count(method, "leader");
+        Object result;
+        try {
+            result = call.run();
+        } catch (Throwable ex) {
+            inFlight.remove(key, flight);
+            flight.result.completeExceptionally(ex);
+            throw ex;
+        }
+        inFlight.remove(key, flight);
+        flight.result.complete(result);
+        return result == null || flight.followers.get() == 0 ? result : share.apply(result);
+    }
+
+    /**
+     * Stops later calls from joining the calls currently in flight.
+     */
+    public void newGeneration() {
+        generation.incrementAndGet();
+    }
+
+    private static Object await(CompletableFuture<Object> leader) throws Throwable {
+        try {
+            return leader.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw ex;
+        }
+    }
+
+    private void count(String method, String role) {
+        Counter.builder("app.singleflight.calls")
+                .description("Coalesced read calls, by whether they ran or joined an identical call")
+                .tag("method", method)
+                .tag("role", role)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @FunctionalInterface
+    public interface Call {
+        Object run() throws Throwable;
+    }
+
+    private record Key(String method, List<Object> args, long generation) {
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger followers = new AtomicInteger();
+    }
+}
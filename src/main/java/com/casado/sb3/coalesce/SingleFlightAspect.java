@@ -0,0 +1,63 @@
+package com.casado.sb3.coalesce;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * Routes {@link Coalesced} methods through {@link SingleFlight}. Runs outside the cache,
+ * transaction and metrics advice, so joining callers neither hold a connection nor count as
+ * service calls. A shared result is copied for each caller through a JSON round trip to the
+ * method's declared return type; records are immutable and shared as they are. Disabled with
+ * {@code app.singleflight.enabled=false}.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SingleFlightAspect {
+
+    private final SingleFlight singleFlight;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.singleflight.enabled:true}")
+    private boolean enabled;
+
+    @Around("@annotation(com.casado.sb3.coalesce.Coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                + joinPoint.getSignature().getName();
+        return singleFlight.execute(method, Arrays.asList(joinPoint.getArgs()), joinPoint::proceed,
+                copier((MethodSignature) joinPoint.getSignature()));
+    }
+
+    private UnaryOperator<Object> copier(MethodSignature signature) {
+        JavaType type = objectMapper.getTypeFactory().constructType(signature.getMethod().getGenericReturnType());
+        if (type.getRawClass().isRecord()) {
+            return UnaryOperator.identity();
+        }
+        return result -> {
+            try {
+                return objectMapper.readValue(objectMapper.writeValueAsBytes(result), type);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        };
+    }
+}
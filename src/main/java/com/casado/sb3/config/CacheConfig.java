@@ -0,0 +1,69 @@
+package com.casado.sb3.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Enables the read-through caches in front of the department and employee services.
+ * The Caffeine caches themselves (size/TTL eviction, statistics) are configured under
+ * {@code spring.cache} and exported as {@code cache.*} metrics through Actuator.
+ * <p>
+ * The caches are transaction-aware: {@code @CacheEvict} and {@code put} inside a transaction
+ * take effect after it commits. Evicting before the commit would let a concurrent read cache
+ * the row it is about to replace. {@code evictIfPresent} and {@code invalidate} stay immediate.
+ * <p>
+ * The Hibernate second-level cache gets a JCache manager owned by this context, configured by
+ * {@value #SECOND_LEVEL_CACHE_CONFIG}.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    static final String SECOND_LEVEL_CACHE_CONFIG = "hibernate-jcache.conf";
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
+        if (StringUtils.hasText(cacheProperties.getCaffeine().getSpec())) {
+            caffeineCacheManager.setCacheSpecification(cacheProperties.getCaffeine().getSpec());
+        }
+        if (!cacheProperties.getCacheNames().isEmpty()) {
+            caffeineCacheManager.setCacheNames(cacheProperties.getCacheNames());
+        }
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+
+    /**
+     * The caching provider shares one manager per URI across the JVM, so every application
+     * context would otherwise share the entity regions, whatever its database (the tests run
+     * several). The fragment makes the URI unique; the provider reads the configuration from
+     * the path alone.
+     */
+    @Bean(destroyMethod = "close")
+    public javax.cache.CacheManager secondLevelCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        URI uri = URI.create("classpath:" + SECOND_LEVEL_CACHE_CONFIG + "#" + UUID.randomUUID());
+        return provider.getCacheManager(uri, provider.getDefaultClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(javax.cache.CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+}
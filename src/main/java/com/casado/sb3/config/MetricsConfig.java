@@ -0,0 +1,21 @@
+package com.casado.sb3.config;
+
+import com.casado.sb3.metrics.StatementCountingInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks the statement counter into Hibernate. Request timers ({@code http.server.requests}),
+ * Hibernate statistics ({@code hibernate.*}) and the Prometheus scrape endpoint are auto-configured
+ * by Actuator and tuned under {@code management.metrics}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(StatementCountingInspector inspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+}
@@ -0,0 +1,92 @@
+package com.casado.sb3.config;
+
+import com.casado.sb3.audit.AuditTrailListener;
+import com.casado.sb3.dto.AuditLogDto;
+import com.casado.sb3.dto.BulkImportResultDto;
+import com.casado.sb3.dto.BulkRowErrorDto;
+import com.casado.sb3.dto.ChangeEventDto;
+import com.casado.sb3.dto.CursorPageDto;
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.dto.EmployeeDto;
+import com.casado.sb3.dto.ErrorResponseDto;
+import com.casado.sb3.dto.JobDto;
+import com.casado.sb3.dto.ReassignRequestDto;
+import com.casado.sb3.dto.ReassignResultDto;
+import com.casado.sb3.dto.ResponseDto;
+import com.casado.sb3.entity.AuditLog;
+import com.casado.sb3.entity.BaseEntity;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.entity.Job;
+import com.casado.sb3.entity.OutboxEvent;
+import com.casado.sb3.entity.TableVersion;
+import com.casado.sb3.id.ConcurrentPooledLoOptimizer;
+import com.casado.sb3.job.BulkImportJobHandler;
+import com.casado.sb3.job.DepartmentDeletionJobHandler;
+import com.casado.sb3.repository.projection.TableStamp;
+import com.casado.sb3.search.EmployeeNameIndexListener;
+import com.casado.sb3.service.BulkImportCheckpoint;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+/**
+ * Reflection and resource hints for the native image build ({@code -Pnative}). Spring's AOT
+ * processing covers the beans themselves; these are the types used reflectively behind its back:
+ * the JPA entities, the MapStruct implementations, the DTOs serialized by Jackson and described
+ * by springdoc, and the classes Hibernate and the JCache provider load by name.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.ApplicationRuntimeHints.class)
+@RegisterReflectionForBinding({
+        DepartmentDto.class, EmployeeDto.class, ResponseDto.class, ErrorResponseDto.class, CursorPageDto.class,
+        BulkImportResultDto.class, BulkRowErrorDto.class, AuditLogDto.class, ChangeEventDto.class,
+        ReassignRequestDto.class, ReassignResultDto.class, JobDto.class,
+        // job parameters and checkpoints, stored as JSON
+        DepartmentDeletionJobHandler.Parameters.class, BulkImportJobHandler.Parameters.class, BulkImportCheckpoint.class,
+        // copied through JSON for each caller of a shared single-flight result
+        TableStamp.class
+})
+public class NativeHintsConfig {
+
+    static class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+        private static final MemberCategory[] ALL_DECLARED = {
+                MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_DECLARED_METHODS
+        };
+
+        private static final List<String> MAPPERS = List.of(
+                "com.casado.sb3.mapper.DepartmentMapperImpl",
+                "com.casado.sb3.mapper.EmployeeMapperImpl",
+                "com.casado.sb3.mapper.AuditLogMapperImpl",
+                "com.casado.sb3.mapper.OutboxEventMapperImpl",
+                "com.casado.sb3.mapper.JobMapperImpl");
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> entity : List.of(BaseEntity.class, Department.class, Employee.class, AuditLog.class,
+                    OutboxEvent.class, Job.class, TableVersion.class)) {
+                hints.reflection().registerType(entity, ALL_DECLARED);
+            }
+            // generated by the annotation processor
+            MAPPERS.forEach(mapper -> hints.reflection().registerTypeIfPresent(classLoader, mapper, ALL_DECLARED));
+
+            // instantiated by Hibernate from their class names
+            for (Class<?> type : List.of(ConcurrentPooledLoOptimizer.class, AuditTrailListener.class,
+                    EmployeeNameIndexListener.class)) {
+                hints.reflection().registerType(type, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            }
+            hints.reflection().registerTypeIfPresent(classLoader,
+                    "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            hints.resources().registerPattern("hibernate-jcache.conf");
+        }
+    }
+}
@@ -17,4 +17,15 @@ public class ProjectConstants {
     public static final String MESSAGE_417_DELETE = "Delete operation failed. Please try again or contact Dev team";
     public static final String STATUS_500 = "500";
     public static final String MESSAGE_500 = "An error occurred. Please try again or contact Dev team";
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final String CACHE_DEPARTMENTS = "departments";
+    public static final String CACHE_EMPLOYEES = "employees";
+    public static final String RESPONSE_DEPARTMENT_LISTING = "department-listing";
+    public static final String STREAM_FETCH_SIZE = "500";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final int MAX_REPORTED_ERRORS = 1000;
+    public static final String JOBS_PATH = "/api/jobs/";
+    // below the web server's lifecycle phases: started before it, stopped after it
+    public static final int BACKGROUND_WRITER_PHASE = Integer.MAX_VALUE - 4096;
 }
@@ -0,0 +1,45 @@
+package com.casado.sb3.controller;
+
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.dto.ChangeEventDto;
+import com.casado.sb3.dto.CursorPageDto;
+import com.casado.sb3.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Incremental feed of department and employee changes, so consumers can sync deltas instead of
+ * re-reading the full listings.
+ */
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+public class ChangeController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final OutboxService outboxService;
+
+    /**
+     * Changes after the given cursor, oldest first. Poll again with the returned cursor.
+     */
+    @GetMapping
+    public ResponseEntity<CursorPageDto<ChangeEventDto>> getChanges(@RequestParam(required = false) String since,
+                                                                    @RequestParam(defaultValue = "" + ProjectConstants.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = Math.max(1, Math.min(size, ProjectConstants.MAX_PAGE_SIZE));
+        return ResponseEntity.ok(outboxService.getChanges(since, pageSize));
+    }
+
+    /**
+     * Server-sent events stream of the changes after the given cursor, or after the
+     * {@code Last-Event-ID} a reconnecting client sends.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) String since,
+                             @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        return outboxService.subscribe(lastEventId != null ? lastEventId : since, ProjectConstants.MAX_PAGE_SIZE);
+    }
+}
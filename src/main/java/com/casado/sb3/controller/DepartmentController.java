@@ -1,23 +1,46 @@
 package com.casado.sb3.controller;
 
+import com.casado.sb3.cache.SerializedResponse;
+import com.casado.sb3.cache.SerializedResponseCache;
 import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.dto.AuditLogDto;
+import com.casado.sb3.dto.BulkImportResultDto;
+import com.casado.sb3.dto.CursorPageDto;
 import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.dto.EmployeeDto;
 import com.casado.sb3.dto.ErrorResponseDto;
+import com.casado.sb3.dto.JobDto;
+import com.casado.sb3.dto.PartialUpdate;
+import com.casado.sb3.dto.ReassignResultDto;
 import com.casado.sb3.dto.ResponseDto;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.repository.projection.VersionStamp;
+import com.casado.sb3.service.AuditService;
+import com.casado.sb3.service.BulkImportService;
+import com.casado.sb3.service.DepartmentDeletionMode;
 import com.casado.sb3.service.DepartmentService;
+import com.casado.sb3.service.ReorganizationService;
+import com.casado.sb3.util.AcceptEncodingUtils;
+import com.casado.sb3.util.ETagUtils;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 
 @Tag(
         name = "CRUD REST APIs for Department",
@@ -29,6 +52,11 @@ import java.util.List;
 public class DepartmentController {
 
     private final DepartmentService departmentService;
+    private final BulkImportService bulkImportService;
+    private final AuditService auditService;
+    private final SerializedResponseCache serializedResponseCache;
+    private final ReorganizationService reorganizationService;
+
     @Operation(
             summary = "Fetch List of departments Details REST API",
             description = "REST API to fetch List of departments Details by ID"
@@ -36,7 +64,14 @@ public class DepartmentController {
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
-                    description = "HTTP Status OK"
+                    description = "HTTP Status OK, served from pre-serialized bytes (gzip-compressed if accepted)",
+                    content = @Content(
+                            array = @ArraySchema(schema = @Schema(implementation = DepartmentDto.class))
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "HTTP Status Not Modified, the If-None-Match ETag is current"
             ),
             @ApiResponse(
                     responseCode = "500",
@@ -47,12 +82,25 @@ public class DepartmentController {
             )
     })
     @GetMapping
-    public ResponseEntity<List<DepartmentDto>> getAll() {
+    public ResponseEntity<byte[]> getAll(WebRequest request,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 //        return departmentService.getAllDepartments();
-        List<DepartmentDto> departments = departmentService.getAllDepartments();
-        return ResponseEntity
+        String eTag = ETagUtils.of(departmentService.getAllDepartmentsStamp());
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        SerializedResponse departments = serializedResponseCache.get(ProjectConstants.RESPONSE_DEPARTMENT_LISTING,
+                eTag, departmentService::getAllDepartmentsUncoalesced);
+        boolean gzip = AcceptEncodingUtils.acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity
                 .status(HttpStatus.OK)
-                .body(departments);
+                .eTag(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(departments.body(gzip));
     }
     @Operation(
             summary = "Fetch Department Details REST API",
@@ -63,6 +111,10 @@ public class DepartmentController {
                     responseCode = "200",
                     description = "HTTP Status OK"
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "HTTP Status Not Modified, the If-None-Match ETag is current"
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "HTTP Status Internal Server Error",
@@ -72,11 +124,78 @@ public class DepartmentController {
             )
     })
     @GetMapping("/{id}")
-    public ResponseEntity<DepartmentDto> getById(@PathVariable Long id) {
+    public ResponseEntity<DepartmentDto> getById(@PathVariable Long id, WebRequest request) {
 //        return ResponseEntity.ok(departmentService.getDepartmentById(id));
+        VersionStamp stamp = departmentService.getDepartmentStamp(id);
+        String eTag = ETagUtils.of(stamp);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        // a cached or coalesced body may predate the stamp: load afresh when the stamp moved since
+        DepartmentDto body = departmentService.getDepartmentById(id);
+        if (!departmentService.getDepartmentStampAfterWrite(id).equals(stamp) || !stamp.version().equals(body.getVersion())) {
+            body = departmentService.getDepartmentByIdUncached(id);
+        }
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(departmentService.getDepartmentById(id));
+                .eTag(eTag)
+                .body(body);
+    }
+    @Operation(
+            summary = "Fetch Employees of a Department REST API",
+            description = "REST API to fetch the Employees of a Department by ID, keyset-paginated in ID order"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @GetMapping("/{id}/employees")
+    public ResponseEntity<CursorPageDto<EmployeeDto>> getEmployees(@PathVariable Long id,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "" + ProjectConstants.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = Math.max(1, Math.min(size, ProjectConstants.MAX_PAGE_SIZE));
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(departmentService.getDepartmentEmployees(id, cursor, pageSize));
+    }
+    @Operation(
+            summary = "Fetch Department History REST API",
+            description = "REST API to fetch the change history of a Department by ID, oldest change first, keyset-paginated"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @GetMapping("/{id}/history")
+    public ResponseEntity<CursorPageDto<AuditLogDto>> getHistory(@PathVariable Long id,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "" + ProjectConstants.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = Math.max(1, Math.min(size, ProjectConstants.MAX_PAGE_SIZE));
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(auditService.getHistory(Department.class.getSimpleName(), id, cursor, pageSize));
     }
     @Operation(
             summary = "Create Department REST API",
@@ -103,6 +222,80 @@ public class DepartmentController {
                 .status(HttpStatus.CREATED)
                 .body(new ResponseDto(ProjectConstants.STATUS_201, ProjectConstants.MESSAGE_201));
     }
+    @Operation(
+            summary = "Bulk import Departments REST API",
+            description = "REST API to create Departments from an NDJSON or CSV (header: name) stream. "
+                    + "With async=true the stream is imported in the background and a job to poll at /api/jobs/{id} is returned"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK, with per-row errors for rejected rows",
+                    content = @Content(
+                            schema = @Schema(implementation = BulkImportResultDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "HTTP Status Accepted, the import job was queued",
+                    content = @Content(
+                            schema = @Schema(implementation = JobDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ProjectConstants.TEXT_CSV_VALUE})
+    public ResponseEntity<?> bulkCreate(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                        @RequestParam(defaultValue = "false") boolean async,
+                                        InputStream body) throws IOException {
+        if (async) {
+            JobDto job = bulkImportService.importAsync(BulkImportService.Target.DEPARTMENTS, body, contentType);
+            return ResponseEntity
+                    .accepted()
+                    .location(URI.create(ProjectConstants.JOBS_PATH + job.getId()))
+                    .body(job);
+        }
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(bulkImportService.importDepartments(body, contentType));
+    }
+    @Operation(
+            summary = "Merge Departments REST API",
+            description = "REST API to move every Employee of a Department to another one and delete the emptied Department"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK, with the number of moved Employees"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request, a Department cannot be merged into itself"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found, either Department does not exist"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PostMapping("/{id}/merge-into/{targetId}")
+    public ResponseEntity<ReassignResultDto> merge(@PathVariable Long id, @PathVariable Long targetId) {
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(reorganizationService.mergeDepartment(id, targetId));
+    }
     @Operation(
             summary = "Update Department Details REST API",
             description = "REST API to update Department Details by ID"
@@ -112,6 +305,14 @@ public class DepartmentController {
                     responseCode = "200",
                     description = "HTTP Status OK"
             ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "HTTP Status Conflict, the version in the body is stale"
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "HTTP Status Precondition Failed, the If-Match ETag is stale"
+            ),
             @ApiResponse(
                     responseCode = "417",
                     description = "Expectation Failed"
@@ -125,12 +326,17 @@ public class DepartmentController {
             )
     })
     @PutMapping("/{id}")
-    public ResponseEntity<ResponseDto> update(@PathVariable Long id, @RequestBody DepartmentDto dto) {
+    public ResponseEntity<ResponseDto> update(@PathVariable Long id, @RequestBody DepartmentDto dto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 //        return ResponseEntity.ok(departmentService.updateDepartment(id, dto));
+        if (ifMatch != null) {
+            dto.setVersion(ETagUtils.versionFromIfMatch(id, ifMatch));
+        }
         boolean isUpdated = departmentService.updateDepartment(id, dto);
         if(isUpdated) {
             return ResponseEntity
                     .status(HttpStatus.OK)
+                    .eTag(ETagUtils.of(departmentService.getDepartmentStampAfterWrite(id)))
                     .body(new ResponseDto(ProjectConstants.STATUS_200, ProjectConstants.MESSAGE_200));
         }else{
             return ResponseEntity
@@ -139,8 +345,8 @@ public class DepartmentController {
         }
     }
     @Operation(
-            summary = "Delete Department Details REST API",
-            description = "REST API to delete Department details based on id"
+            summary = "Patch Department Details REST API",
+            description = "REST API to partially update Department Details by ID, only the fields present in the body are changed"
     )
     @ApiResponses({
             @ApiResponse(
@@ -148,8 +354,65 @@ public class DepartmentController {
                     description = "HTTP Status OK"
             ),
             @ApiResponse(
-                    responseCode = "417",
-                    description = "Expectation Failed"
+                    responseCode = "409",
+                    description = "HTTP Status Conflict, the Department was modified concurrently"
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "HTTP Status Precondition Failed, the If-Match ETag is stale"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<DepartmentDto> patch(@PathVariable Long id, @Validated(PartialUpdate.class) @RequestBody DepartmentDto dto,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) {
+            dto.setVersion(ETagUtils.versionFromIfMatch(id, ifMatch));
+        }
+        DepartmentDto department = departmentService.patchDepartment(id, dto);
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .eTag(ETagUtils.of(departmentService.getDepartmentStampAfterWrite(id)))
+                .body(department);
+    }
+    @Operation(
+            summary = "Delete Department Details REST API",
+            description = "REST API to delete Department details based on id. The Employees are deleted with it (mode=CASCADE), "
+                    + "moved to another Department (mode=REASSIGN&targetId=...) or kept without one (mode=ORPHAN), "
+                    + "with set-based statements. With async=true the deletion runs in the background and a job to poll at /api/jobs/{id} is returned"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK, with the number of deleted or moved Employees",
+                    content = @Content(
+                            schema = @Schema(implementation = ReassignResultDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "HTTP Status Accepted, the deletion job was started",
+                    content = @Content(
+                            schema = @Schema(implementation = JobDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "HTTP Status Bad Request, the target Department is missing or the deleted one"
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "HTTP Status Conflict, the version in the body is stale"
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "HTTP Status Precondition Failed, the If-Match ETag is stale"
             ),
             @ApiResponse(
                     responseCode = "500",
@@ -161,17 +424,21 @@ public class DepartmentController {
     }
     )
     @DeleteMapping("/{id}")
-    public ResponseEntity<ResponseDto> delete(@PathVariable Long id) {
-//        return ResponseEntity.noContent().build();
-        boolean isDeleted = departmentService.deleteDepartment(id);
-        if(isDeleted) {
+    public ResponseEntity<?> delete(@PathVariable Long id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                    @RequestParam(defaultValue = "CASCADE") DepartmentDeletionMode mode,
+                                    @RequestParam(required = false) Long targetId,
+                                    @RequestParam(defaultValue = "false") boolean async) {
+        Long expectedVersion = ETagUtils.versionFromIfMatch(id, ifMatch);
+        if (async) {
+            JobDto job = reorganizationService.deleteDepartmentAsync(id, mode, targetId, expectedVersion);
             return ResponseEntity
-                    .status(HttpStatus.OK)
-                    .body(new ResponseDto(ProjectConstants.STATUS_200, ProjectConstants.MESSAGE_200));
-        }else{
-            return ResponseEntity
-                    .status(HttpStatus.EXPECTATION_FAILED)
-                    .body(new ResponseDto(ProjectConstants.STATUS_417, ProjectConstants.MESSAGE_417_DELETE));
+                    .accepted()
+                    .location(URI.create(ProjectConstants.JOBS_PATH + job.getId()))
+                    .body(job);
         }
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(reorganizationService.deleteDepartment(id, mode, targetId, expectedVersion));
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,41 @@
 package com.casado.sb3.controller;
 
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.dto.AuditLogDto;
+import com.casado.sb3.dto.CursorPageDto;
 import com.casado.sb3.dto.EmployeeDto;
+import com.casado.sb3.dto.JobDto;
+import com.casado.sb3.dto.PartialUpdate;
+import com.casado.sb3.dto.ReassignRequestDto;
+import com.casado.sb3.dto.ReassignResultDto;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.repository.projection.VersionStamp;
+import com.casado.sb3.service.AuditService;
+import com.casado.sb3.service.BulkImportService;
+import com.casado.sb3.service.EmployeeExportService;
 import com.casado.sb3.service.EmployeeService;
+import com.casado.sb3.service.ReorganizationService;
+import com.casado.sb3.util.AcceptEncodingUtils;
+import com.casado.sb3.util.ETagUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/employees")
@@ -16,15 +43,133 @@ import java.util.List;
 public class EmployeeController {
 
     private final EmployeeService employeeService;
+    private final BulkImportService bulkImportService;
+    private final AuditService auditService;
+    private final EmployeeExportService employeeExportService;
+    private final ReorganizationService reorganizationService;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Streams all employees as a JSON array, writing each row as it comes off the database
+     * cursor, so memory and time-to-first-byte do not depend on the table size.
+     * <p>
+     * The status line is committed with the first bytes: the ETag query runs first and fails the
+     * request cleanly if the database is unavailable, but an error after that can only abort the
+     * response. The array is then left unclosed, so clients see malformed JSON rather than a
+     * complete-looking but truncated list.
+     */
     @GetMapping
-    public List<EmployeeDto> getAll() {
-        return employeeService.getAllEmployees();
+    public ResponseEntity<StreamingResponseBody> getAll(WebRequest request) {
+        String eTag = ETagUtils.of(employeeService.getAllEmployeesStamp());
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+                generator.writeStartArray();
+                employeeService.streamAllEmployees(dto -> {
+                    try {
+                        generator.writeObject(dto);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
+    /**
+     * Full directory export as NDJSON or CSV ({@code format=ndjson|csv}), written from a
+     * forward-only cursor straight to the response in constant memory. Gzip-compressed when the
+     * client accepts it with a non-zero quality.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        EmployeeExportService.Format exportFormat = EmployeeExportService.Format.fromExtension(format).orElse(null);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean gzip = AcceptEncodingUtils.acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(StreamUtils.nonClosing(out), 64 * 1024)) {
+                    employeeExportService.export(exportFormat, compressed);
+                }
+            } else {
+                employeeExportService.export(exportFormat, out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"employees." + exportFormat.getExtension() + "\"")
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Keyset-paginated listing, selected when a page size is requested.
+     */
+    @GetMapping(params = "size")
+    public ResponseEntity<CursorPageDto<EmployeeDto>> getPage(@RequestParam int size,
+                                                              @RequestParam(required = false) String cursor) {
+        int pageSize = Math.max(1, Math.min(size, ProjectConstants.MAX_PAGE_SIZE));
+        return ResponseEntity.ok(employeeService.getEmployeesPage(cursor, pageSize));
+    }
+
+    /**
+     * Prefix-aware name search backed by the in-memory name index.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDto<EmployeeDto>> search(@RequestParam("q") String query,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "" + ProjectConstants.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = Math.max(1, Math.min(size, ProjectConstants.MAX_PAGE_SIZE));
+        return ResponseEntity.ok(employeeService.searchEmployees(query, cursor, pageSize));
+    }
+
+    /**
+     * Conditional read: the validators are selected first and a current {@code If-None-Match}
+     * or {@code If-Modified-Since} is answered with 304 before the employee is loaded. A cached
+     * or coalesced body may predate those validators, so they are read again after it; when
+     * they moved, the body is loaded afresh. It is then newer than its tag, which only costs the
+     * client one more full response.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<EmployeeDto> getById(@PathVariable Long id) {
-        return ResponseEntity.ok(employeeService.getEmployeeById(id));
+    public ResponseEntity<EmployeeDto> getById(@PathVariable Long id, WebRequest request) {
+        VersionStamp stamp = employeeService.getEmployeeStamp(id);
+        String eTag = ETagUtils.of(stamp);
+        long lastModified = ETagUtils.lastModified(stamp);
+        if (request.checkNotModified(eTag, lastModified)) { // also sets ETag and Last-Modified
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        EmployeeDto body = employeeService.getEmployeeById(id);
+        if (!employeeService.getEmployeeStampAfterWrite(id).equals(stamp) || !stamp.version().equals(body.getVersion())) {
+            body = employeeService.getEmployeeByIdUncached(id);
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(body);
+    }
+
+    /**
+     * Change history of one employee, oldest change first.
+     */
+    @GetMapping("/{id}/history")
+    public ResponseEntity<CursorPageDto<AuditLogDto>> getHistory(@PathVariable Long id,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "" + ProjectConstants.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = Math.max(1, Math.min(size, ProjectConstants.MAX_PAGE_SIZE));
+        return ResponseEntity.ok(auditService.getHistory(Employee.class.getSimpleName(), id, cursor, pageSize));
     }
 
     @PostMapping
@@ -32,14 +177,68 @@ public class EmployeeController {
         return new ResponseEntity<>(employeeService.createEmployee(dto), HttpStatus.CREATED);
     }
 
+    /**
+     * Imports employees from an NDJSON or CSV (header: name,departmentName) stream. With
+     * {@code async=true} the stream is spooled and imported by a background job, answered with
+     * 202 and the job to poll.
+     */
+    @PostMapping(path = "/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ProjectConstants.TEXT_CSV_VALUE})
+    public ResponseEntity<?> bulkCreate(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                        @RequestParam(defaultValue = "false") boolean async,
+                                        InputStream body) throws IOException {
+        if (async) {
+            JobDto job = bulkImportService.importAsync(BulkImportService.Target.EMPLOYEES, body, contentType);
+            return ResponseEntity.accepted()
+                    .location(URI.create(ProjectConstants.JOBS_PATH + job.getId()))
+                    .body(job);
+        }
+        return ResponseEntity.ok(bulkImportService.importEmployees(body, contentType));
+    }
+
+    /**
+     * Moves a set of employees to one department with set-based updates. Unknown employees and
+     * those already in the department are skipped and counted.
+     */
+    @PostMapping("/reassign")
+    public ResponseEntity<ReassignResultDto> reassign(@Valid @RequestBody ReassignRequestDto request) {
+        return ResponseEntity.ok(reorganizationService.reassignEmployees(request));
+    }
+
+    /**
+     * Full update. An {@code If-Match} ETag takes precedence over the version in the body; a
+     * stale one is answered with 412.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<EmployeeDto> update(@PathVariable Long id, @Valid @RequestBody EmployeeDto dto) {
-        return ResponseEntity.ok(employeeService.updateEmployee(id, dto));
+    public ResponseEntity<EmployeeDto> update(@PathVariable Long id, @Valid @RequestBody EmployeeDto dto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) {
+            dto.setVersion(ETagUtils.versionFromIfMatch(id, ifMatch));
+        }
+        EmployeeDto employee = employeeService.updateEmployee(id, dto);
+        return ResponseEntity.ok()
+                .eTag(ETagUtils.of(employeeService.getEmployeeStampAfterWrite(id)))
+                .body(employee);
+    }
+
+    /**
+     * Partial update: only the fields present in the body are changed.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<EmployeeDto> patch(@PathVariable Long id, @Validated(PartialUpdate.class) @RequestBody EmployeeDto dto,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) {
+            dto.setVersion(ETagUtils.versionFromIfMatch(id, ifMatch));
+        }
+        EmployeeDto employee = employeeService.patchEmployee(id, dto);
+        return ResponseEntity.ok()
+                .eTag(ETagUtils.of(employeeService.getEmployeeStampAfterWrite(id)))
+                .body(employee);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable Long id) {
-        employeeService.deleteEmployee(id);
+    public ResponseEntity<Void> delete(@PathVariable Long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        employeeService.deleteEmployee(id, ETagUtils.versionFromIfMatch(id, ifMatch));
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
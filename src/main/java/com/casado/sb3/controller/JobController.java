@@ -0,0 +1,56 @@
+package com.casado.sb3.controller;
+
+import com.casado.sb3.dto.ErrorResponseDto;
+import com.casado.sb3.dto.JobDto;
+import com.casado.sb3.service.JobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Tag(
+        name = "REST APIs for background Jobs",
+        description = "REST APIs to poll the progress of imports and Department deletions run in the background"
+)
+@RestController
+@RequestMapping(path = "/api/jobs", produces = {MediaType.APPLICATION_JSON_VALUE})
+@RequiredArgsConstructor
+public class JobController {
+
+    private final JobService jobService;
+
+    @Operation(
+            summary = "Fetch Job REST API",
+            description = "REST API to fetch the status, progress and, once completed, the result of a Job"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP Status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "HTTP Status Not Found"
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "HTTP Status Internal Server Error",
+                    content = @Content(
+                            schema = @Schema(implementation = ErrorResponseDto.class)
+                    )
+            )
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<JobDto> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(jobService.getJob(id));
+    }
+}
@@ -0,0 +1,59 @@
+package com.casado.sb3.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Data source of read-only transactions: hands out replica connections while the
+ * {@link ReplicaLagMonitor} reports the replica as usable, primary connections otherwise and
+ * for {@link ReadFromPrimary} reads. Every decision is counted in
+ * {@code app.datasource.reads{target}}.
+ */
+public class LagAwareReplicaDataSource extends AbstractDataSource {
+
+    private final DataSource replica;
+    private final DataSource primary;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final Counter replicaReads;
+    private final Counter fallbackReads;
+
+    public LagAwareReplicaDataSource(DataSource replica, DataSource primary, ReplicaLagMonitor replicaLagMonitor,
+                                     MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.primary = primary;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.replicaReads = reads(meterRegistry, "replica");
+        this.fallbackReads = reads(meterRegistry, "primary");
+    }
+
+    private static Counter reads(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("app.datasource.reads")
+                .description("Connections handed out to read-only transactions, by pool")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    private DataSource target() {
+        if (!ReadFromPrimaryAspect.isPrimaryRequired() && replicaLagMonitor.isReplicaUsable()) {
+            replicaReads.increment();
+            return replica;
+        }
+        fallbackReads.increment();
+        return primary;
+    }
+}
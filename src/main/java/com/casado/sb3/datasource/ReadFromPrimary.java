@@ -0,0 +1,16 @@
+package com.casado.sb3.datasource;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a read-only method whose result must reflect every committed write, so it reads the
+ * primary even while the replica is usable: loads that populate a cache, and the validators and
+ * bodies of responses carrying an ETag. A lagging replica would otherwise get stale state cached
+ * for the cache's lifetime, or answered with 304 right after the client changed it. Only has an
+ * effect with the {@code replica} profile.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadFromPrimary {
+}
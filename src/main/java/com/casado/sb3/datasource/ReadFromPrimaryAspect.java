@@ -0,0 +1,42 @@
+package com.casado.sb3.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Flags the thread running a {@link ReadFromPrimary} method for the
+ * {@link LagAwareReplicaDataSource}. Runs inside the single-flight advice, on the thread that
+ * executes the read, and outside the transaction, before its connection is fetched.
+ */
+@Aspect
+@Component
+@Profile("replica")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ReadFromPrimaryAspect {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    @Around("@annotation(com.casado.sb3.datasource.ReadFromPrimary)")
+    public Object readFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        Boolean outer = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (outer == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(outer);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.casado.sb3.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how far the replica lags behind the primary with a heartbeat row: the primary's row is
+ * bumped every interval and the replica's copy is read back, the difference being the
+ * replication lag. The replica is considered usable only while the lag is within
+ * {@code max-lag}; until the first successful probe, and whenever a probe fails, it is not.
+ * Exposed as {@code app.datasource.replica.lag} (seconds) and {@code app.datasource.replica.usable}.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String CREATE_SQL =
+            "create table if not exists replica_heartbeat (id int primary key, beat_at timestamp not null)";
+    private static final String UPDATE_SQL = "update replica_heartbeat set beat_at = ? where id = 1";
+    private static final String INSERT_SQL = "insert into replica_heartbeat (id, beat_at) values (1, ?)";
+    private static final String SELECT_SQL = "select beat_at from replica_heartbeat where id = 1";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            runnable -> Thread.ofPlatform().name("replica-lag-monitor").daemon().unstarted(runnable));
+
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, Duration interval,
+                             MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLag = maxLag;
+        this.interval = interval;
+        Gauge.builder("app.datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .description("Replication lag measured through the heartbeat row")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("app.datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("Whether read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        primary.execute(CREATE_SQL);
+        beat();
+        probe();
+        scheduler.scheduleWithFixedDelay(() -> {
+            beat();
+            probe();
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    /**
+     * Reads the replica's heartbeat and updates the lag and the usable flag.
+     */
+    public void probe() {
+        try {
+            List<Timestamp> beats = replica.queryForList(SELECT_SQL, Timestamp.class);
+            if (beats.isEmpty()) {
+                markUnusable("no heartbeat replicated yet");
+                return;
+            }
+            Duration lag = Duration.between(beats.get(0).toLocalDateTime(), LocalDateTime.now());
+            lagSeconds = lag.toMillis() / 1000.0;
+            boolean wasUsable = usable;
+            usable = lag.compareTo(maxLag) <= 0;
+            if (wasUsable && !usable) {
+                log.warn("Replica lags {} behind the primary, routing reads to the primary", lag);
+            }
+        } catch (DataAccessException ex) {
+            markUnusable(ex.getMessage());
+        }
+    }
+
+    private void beat() {
+        try {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            if (primary.update(UPDATE_SQL, now) == 0) {
+                primary.update(INSERT_SQL, now);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Failed to write the replica heartbeat: {}", ex.getMessage());
+        }
+    }
+
+    private void markUnusable(String reason) {
+        if (usable) {
+            log.warn("Replica unusable, routing reads to the primary: {}", reason);
+        }
+        usable = false;
+        lagSeconds = Double.NaN;
+    }
+}
@@ -0,0 +1,56 @@
+package com.casado.sb3.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(
+        name = "AuditLog",
+        description = "Schema to hold one change of a Department or Employee"
+)
+public class AuditLogDto {
+
+    @Schema(
+            description = "Audit entry ID", example = "1"
+    )
+    private Long id;
+
+    @Schema(
+            description = "Type of the changed entity", example = "Department"
+    )
+    private String entityType;
+
+    @Schema(
+            description = "ID of the changed entity", example = "1"
+    )
+    private Long entityId;
+
+    @Schema(
+            description = "Kind of change", example = "UPDATE"
+    )
+    private String action;
+
+    @Schema(
+            description = "Version of the entity after the change", example = "3"
+    )
+    private Long entityVersion;
+
+    @Schema(
+            description = "Auditor that made the change", example = "SpringBoot3Demo_MS"
+    )
+    private String changedBy;
+
+    @Schema(
+            description = "Time of the change", example = "2025-04-18T23:17:53.525231"
+    )
+    private LocalDateTime changedAt;
+
+    @Schema(
+            description = "Audited fields after the change", example = "{\"name\":\"Engineering\"}"
+    )
+    @JsonRawValue
+    private String details;
+}
@@ -31,4 +31,9 @@ public abstract class BaseDto {
             description = "Auditing updated by", example = "Antonio Casadò"
     )
     private String updatedBy;
+
+    @Schema(
+            description = "Optimistic locking version, send it back on updates to detect concurrent changes", example = "3"
+    )
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.casado.sb3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Schema(
+        name = "BulkImportResult",
+        description = "Schema to hold the outcome of a bulk import"
+)
+public class BulkImportResultDto {
+
+    @Schema(
+            description = "Number of data rows read from the stream", example = "5000"
+    )
+    private long received;
+
+    @Schema(
+            description = "Number of rows persisted", example = "4998"
+    )
+    private long imported;
+
+    @Schema(
+            description = "Number of rows rejected", example = "2"
+    )
+    private long failed;
+
+    @Schema(
+            description = "Rejected rows, capped to the first 1000"
+    )
+    private List<BulkRowErrorDto> errors = new ArrayList<>();
+}
@@ -0,0 +1,29 @@
+package com.casado.sb3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data @AllArgsConstructor
+@Schema(
+        name = "BulkRowError",
+        description = "Schema to hold the error of a single rejected bulk import row"
+)
+public class BulkRowErrorDto {
+
+    @Schema(
+            description = "Line number of the rejected row in the uploaded stream", example = "42"
+    )
+    private long line;
+
+    @Schema(
+            description = "Stable reason code: MALFORMED, INVALID, DUPLICATE, CONFLICT or WRITE_FAILED",
+            example = "INVALID"
+    )
+    private String code;
+
+    @Schema(
+            description = "Reason the row was rejected", example = "name: Name is required"
+    )
+    private String error;
+}
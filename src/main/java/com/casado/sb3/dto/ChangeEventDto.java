@@ -0,0 +1,51 @@
+package com.casado.sb3.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(
+        name = "ChangeEvent",
+        description = "Schema to hold one Department or Employee change of the change feed"
+)
+public class ChangeEventDto {
+
+    @Schema(
+            description = "Position of the change in the feed, pass it as since to continue after it", example = "MTIz"
+    )
+    private String cursor;
+
+    @Schema(
+            description = "Type of the changed entity", example = "Employee"
+    )
+    private String entityType;
+
+    @Schema(
+            description = "ID of the changed entity", example = "1"
+    )
+    private Long entityId;
+
+    @Schema(
+            description = "Kind of change", example = "UPDATE"
+    )
+    private String action;
+
+    @Schema(
+            description = "Version of the entity after the change", example = "3"
+    )
+    private Long entityVersion;
+
+    @Schema(
+            description = "Time of the change", example = "2025-04-18T23:17:53.525231"
+    )
+    private LocalDateTime occurredAt;
+
+    @Schema(
+            description = "State of the entity after the change, as returned by its GET endpoint"
+    )
+    @JsonRawValue
+    private String payload;
+}
@@ -0,0 +1,31 @@
+package com.casado.sb3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data @AllArgsConstructor @NoArgsConstructor
+@Schema(
+        name = "CursorPage",
+        description = "Schema to hold one keyset-paginated page of results"
+)
+public class CursorPageDto<T> {
+
+    @Schema(
+            description = "Items of the current page, ordered by ID"
+    )
+    private List<T> items;
+
+    @Schema(
+            description = "Opaque cursor to request the next page, null when this is the last page", example = "MTIz"
+    )
+    private String nextCursor;
+
+    @Schema(
+            description = "Requested page size", example = "50"
+    )
+    private int size;
+}
@@ -1,9 +1,12 @@
 package com.casado.sb3.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import jakarta.validation.groups.Default;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -27,11 +30,24 @@ public class DepartmentDto extends BaseDto {
     )
     @NotEmpty(message = "Department name can not be a null or empty")
     @NotBlank(message = "Department name is required")
-    @Size(min = 4, max = 50, message = "Name must be 5–50 characters long")
+    @Pattern(regexp = ".*\\S.*", message = "Department name is required", groups = PartialUpdate.class)
+    @Size(min = 4, max = 50, message = "Name must be 5–50 characters long", groups = {Default.class, PartialUpdate.class})
     private String name;
 
     @Schema(
-            description = "List of the Employees", example = "Antonio Casadò, Fabian Schmidt"
+            description = "Number of Employees in the Department", example = "42"
     )
+    private Long employeeCount;
+
+    @Schema(
+            description = "First page of the Employees, only embedded in the Department details", example = "Antonio Casadò, Fabian Schmidt"
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<EmployeeDto> employees;
+
+    @Schema(
+            description = "Cursor for GET /api/departments/{id}/employees to continue after the embedded Employees", example = "MTIz"
+    )
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String employeesNextCursor;
 }
\ No newline at end of file
@@ -3,7 +3,9 @@ package com.casado.sb3.dto;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import jakarta.validation.groups.Default;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -25,7 +27,8 @@ public class EmployeeDto extends BaseDto {
     )
     @NotEmpty(message = "Name can not be a null or empty")
     @NotBlank(message = "Name is required")
-    @Size(min = 4, max = 50, message = "Name must be 5–50 characters long")
+    @Pattern(regexp = ".*\\S.*", message = "Name is required", groups = PartialUpdate.class)
+    @Size(min = 4, max = 50, message = "Name must be 5–50 characters long", groups = {Default.class, PartialUpdate.class})
     private String name;
 
     @Schema(
@@ -38,6 +41,7 @@ public class EmployeeDto extends BaseDto {
     )
     @NotEmpty(message = "Name of the Department can not be a null or empty")
     @NotBlank(message = "Name of the Department is required")
-    @Size(min = 4, max = 50, message = "Name must be 5–50 characters long")
+    @Pattern(regexp = ".*\\S.*", message = "Name of the Department is required", groups = PartialUpdate.class)
+    @Size(min = 4, max = 50, message = "Name must be 5–50 characters long", groups = {Default.class, PartialUpdate.class})
     private String departmentName;  //  Optional read-only field
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.casado.sb3.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Schema(
+        name = "Job",
+        description = "Schema to hold the progress of a background job"
+)
+public class JobDto {
+
+    @Schema(
+            description = "Job ID, to poll the progress with", example = "3f1c0a52-8c4e-4f5e-9a57-0d4c2b8e6a11"
+    )
+    private String id;
+
+    @Schema(
+            description = "Kind of job", example = "department-deletion"
+    )
+    private String type;
+
+    @Schema(
+            description = "QUEUED, RUNNING, COMPLETED or FAILED", example = "RUNNING"
+    )
+    private String status;
+
+    @Schema(
+            description = "Amount of work, null when unknown up front", example = "250000"
+    )
+    private Long total;
+
+    @Schema(
+            description = "Amount of work done so far", example = "120000"
+    )
+    private long processed;
+
+    @Schema(
+            description = "Outcome of the job once completed, depends on its type"
+    )
+    @JsonRawValue
+    private String result;
+
+    @Schema(
+            description = "Why the job failed, when it did"
+    )
+    private String error;
+
+    @Schema(
+            description = "When the job was submitted", example = "2025-04-18T23:17:53.525231"
+    )
+    private LocalDateTime createdAt;
+
+    @Schema(
+            description = "When the job first started running"
+    )
+    private LocalDateTime startedAt;
+
+    @Schema(
+            description = "When the last chunk was committed"
+    )
+    private LocalDateTime updatedAt;
+
+    @Schema(
+            description = "When the job completed or failed"
+    )
+    private LocalDateTime finishedAt;
+}
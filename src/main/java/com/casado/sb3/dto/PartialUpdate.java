@@ -0,0 +1,8 @@
+package com.casado.sb3.dto;
+
+/**
+ * Validation group of PATCH bodies: the fields that are present must be valid, absent ones are
+ * left unchanged and not checked.
+ */
+public interface PartialUpdate {
+}
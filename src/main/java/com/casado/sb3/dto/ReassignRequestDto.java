@@ -0,0 +1,28 @@
+package com.casado.sb3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(
+        name = "ReassignRequest",
+        description = "Schema to hold the Employees to move and their new Department"
+)
+public class ReassignRequestDto {
+
+    @Schema(
+            description = "IDs of the Employees to move", example = "[1, 2, 3]"
+    )
+    @NotEmpty(message = "Employee IDs are required")
+    private List<@NotNull Long> employeeIds;
+
+    @Schema(
+            description = "ID of the Department to move them to", example = "2"
+    )
+    @NotNull(message = "Department ID is required")
+    private Long departmentId;
+}
@@ -0,0 +1,42 @@
+package com.casado.sb3.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@Schema(
+        name = "ReassignResult",
+        description = "Schema to hold the outcome of a bulk move of Employees"
+)
+public class ReassignResultDto {
+
+    @Schema(
+            description = "Number of distinct Employee IDs considered", example = "5000"
+    )
+    private long requested;
+
+    @Schema(
+            description = "Number of Employee rows moved", example = "4990"
+    )
+    private long moved;
+
+    @Schema(
+            description = "Number of Employee rows deleted with their Department", example = "0"
+    )
+    private long deleted;
+
+    @Schema(
+            description = "Number of Employees skipped, unknown or already in the target Department", example = "10"
+    )
+    private long skipped;
+
+    @Schema(
+            description = "Number of bulk UPDATE and DELETE statements issued", example = "5"
+    )
+    private int statements;
+
+    @Schema(
+            description = "Number of Departments deleted, 1 when a merged Department was removed", example = "1"
+    )
+    private int departmentsDeleted;
+}
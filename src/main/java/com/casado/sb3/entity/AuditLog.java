@@ -0,0 +1,45 @@
+package com.casado.sb3.entity;
+
+import com.casado.sb3.audit.AuditAction;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Change history of departments and employees. Rows are inserted over plain JDBC by the
+ * {@code AuditTrailWriter}; JPA only reads them.
+ */
+@Entity
+@Immutable
+@Table(name = "audit_log", indexes = @Index(name = "idx_audit_log_entity", columnList = "entity_type, entity_id, id"))
+@Getter
+@Setter
+public class AuditLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 32)
+    private String entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AuditAction action;
+
+    private Long entityVersion;
+
+    private String changedBy;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+
+    @Column(length = 4000)
+    private String details;
+}
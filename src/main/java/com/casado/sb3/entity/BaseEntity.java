@@ -1,8 +1,10 @@
 package com.casado.sb3.entity;
 
+import com.casado.sb3.audit.AuditTrailListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -15,7 +17,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @MappedSuperclass
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, AuditTrailListener.class})
 @Getter
 @Setter
 @ToString
@@ -36,4 +38,7 @@ public abstract class BaseEntity {
     @LastModifiedBy
     @Column(insertable = false)
     private String updatedBy;
+
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.casado.sb3.entity;
+
+import com.casado.sb3.job.JobStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A long-running operation run in the background, chunk by chunk. {@code checkpoint} is the
+ * handler's state after the last committed chunk, written in the same transaction as the chunk,
+ * so a job interrupted by a restart resumes exactly where it stopped.
+ */
+@Entity
+@Table(name = "job", indexes = @Index(name = "idx_job_status", columnList = "status, created_at"))
+@Getter
+@Setter
+public class Job {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false, length = 64)
+    private String type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private JobStatus status;
+
+    @Lob
+    private String parameters;
+
+    @Lob
+    private String checkpoint;
+
+    @Lob
+    private String result;
+
+    @Column(length = 1000)
+    private String error;
+
+    private Long total;
+
+    private long processed;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,47 @@
+package com.casado.sb3.entity;
+
+import com.casado.sb3.audit.AuditAction;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transactional outbox of department and employee changes, inserted in the same transaction as
+ * the change itself. {@code position} is assigned after commit by the {@code OutboxRelay} in the
+ * order rows become visible, and is the cursor of the change feed.
+ */
+@Entity
+@Table(name = "outbox_event",
+        indexes = @Index(name = "idx_outbox_event_position", columnList = "feed_position", unique = true))
+@Getter
+@Setter
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "feed_position")
+    private Long position;
+
+    @Column(nullable = false, length = 32)
+    private String entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AuditAction action;
+
+    private Long entityVersion;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(length = 4000)
+    private String payload;
+}
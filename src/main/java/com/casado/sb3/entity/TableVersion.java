@@ -0,0 +1,33 @@
+package com.casado.sb3.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Modification counter of a whole table, incremented in the same transaction as every change
+ * appended to the outbox. It only moves forward, so unlike an aggregate over the rows it cannot
+ * come back to a value an earlier state of the table already had.
+ */
+@Entity
+@Table(name = "table_version")
+@Getter
+@Setter
+@NoArgsConstructor
+public class TableVersion {
+
+    @Id
+    @Column(length = 32)
+    private String name;
+
+    @Column(nullable = false)
+    private long version;
+
+    public TableVersion(String name) {
+        this.name = name;
+    }
+}
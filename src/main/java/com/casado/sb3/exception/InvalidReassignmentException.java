@@ -0,0 +1,13 @@
+package com.casado.sb3.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidReassignmentException extends RuntimeException {
+
+    public InvalidReassignmentException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.casado.sb3.exception;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Thrown when a client based its change on a version that is no longer current. Unlike a
+ * conflict detected at flush time, retrying cannot help: the client has to reload first.
+ */
+public class StaleVersionException extends OptimisticLockingFailureException {
+
+    public StaleVersionException(String resourceName, Object id, Long expectedVersion, Long currentVersion) {
+        super(String.format("%s '%s' is at version %s, not %s", resourceName, id, currentVersion, expectedVersion));
+    }
+}
@@ -0,0 +1,87 @@
+package com.casado.sb3.id;
+
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.PooledLoOptimizer;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent variant of Hibernate's {@link PooledLoOptimizer}, which synchronizes every call.
+ * <p>
+ * Each database sequence value {@code lo} reserves the block {@code [lo, lo + incrementSize)}.
+ * Only the fast path is lock-free: ids are handed out from the current block with a single atomic
+ * increment. When a block runs out, refilling takes a lock and is single-flight: the first thread to take the refill lock
+ * fetches the next sequence value, and threads queued behind it find the new block installed and
+ * go back to the fast path. So contention never costs an extra sequence round trip or an unused
+ * block. A {@link ReentrantLock} rather than {@code synchronized}, so a virtual thread waiting
+ * on the database does not pin its carrier.
+ * <p>
+ * Registered for every pooled sequence through {@code hibernate.id.optimizer.pooled.preferred},
+ * so it is the strategy behind the {@code @GeneratedValue} ids of all entities. Multi-tenant
+ * sequences are not supported.
+ */
+public class ConcurrentPooledLoOptimizer extends PooledLoOptimizer {
+
+    private final AtomicReference<Block> current = new AtomicReference<>();
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    public ConcurrentPooledLoOptimizer(Class<?> returnClass, int incrementSize) {
+        super(returnClass, incrementSize);
+    }
+
+    @Override
+    public Serializable generate(AccessCallback callback) {
+        while (true) {
+            Block block = current.get();
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.limit) {
+                    return (Serializable) IdentifierGeneratorHelper.getIntegralDataTypeHolder(getReturnClass())
+                            .initialize(value)
+                            .makeValue();
+                }
+            }
+            refill(block, callback);
+        }
+    }
+
+    /**
+     * Installs a new block unless another thread replaced the exhausted one in the meantime.
+     */
+    private void refill(Block exhausted, AccessCallback callback) {
+        refillLock.lock();
+        try {
+            if (current.get() == exhausted) {
+                IntegralDataTypeHolder source = callback.getNextValue();
+                current.set(new Block(source, source.makeValue().longValue(), getIncrementSize()));
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    @Override
+    public IntegralDataTypeHolder getLastSourceValue() {
+        Block block = current.get();
+        return block == null ? null : block.source;
+    }
+
+    private static final class Block {
+
+        private final IntegralDataTypeHolder source;
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(IntegralDataTypeHolder source, long lo, int size) {
+            this.source = source;
+            // handle sequences starting below one, as PooledLoOptimizer does
+            this.next = new AtomicLong(Math.max(lo, 1L));
+            this.limit = lo + size;
+        }
+    }
+}
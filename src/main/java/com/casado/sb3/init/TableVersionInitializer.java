@@ -0,0 +1,40 @@
+package com.casado.sb3.init;
+
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.entity.TableVersion;
+import com.casado.sb3.repository.TableVersionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the missing {@link TableVersion} counters before any write, so that concurrent first
+ * writes to a table only ever increment its row instead of racing to insert it.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class TableVersionInitializer implements ApplicationRunner {
+
+    private final TableVersionRepository tableVersionRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String table : List.of(Department.class.getSimpleName(), Employee.class.getSimpleName())) {
+            if (!tableVersionRepository.existsById(table)) {
+                try {
+                    tableVersionRepository.save(new TableVersion(table));
+                } catch (DataIntegrityViolationException ex) {
+                    // created by another instance in the meantime
+                }
+            }
+        }
+    }
+}
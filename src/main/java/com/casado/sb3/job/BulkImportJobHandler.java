@@ -0,0 +1,107 @@
+package com.casado.sb3.job;
+
+import com.casado.sb3.service.BulkImportCheckpoint;
+import com.casado.sb3.service.BulkImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports a spooled NDJSON or CSV upload chunk by chunk, see {@link BulkImportService#importChunk}.
+ * Progress is counted in bytes of the file, which are known up front; the result is the same
+ * report as the synchronous import, including a chunk that fails to write being rejected row by
+ * row instead of failing the job.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkImportJobHandler implements JobHandler<BulkImportJobHandler.Parameters, BulkImportCheckpoint> {
+
+    public static final String TYPE = "bulk-import";
+
+    private final BulkImportService bulkImportService;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Class<Parameters> parametersType() {
+        return Parameters.class;
+    }
+
+    @Override
+    public Class<BulkImportCheckpoint> stateType() {
+        return BulkImportCheckpoint.class;
+    }
+
+    @Override
+    public BulkImportCheckpoint start(Parameters parameters, JobContext context) {
+        try {
+            context.setTotal(Files.size(Path.of(parameters.file())));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new BulkImportCheckpoint();
+    }
+
+    @Override
+    public boolean runChunk(Parameters parameters, BulkImportCheckpoint state, JobContext context) {
+        try {
+            boolean done = bulkImportService.importChunk(parameters.target(), Path.of(parameters.file()),
+                    parameters.contentType(), state);
+            context.setProcessed(state.getOffset());
+            return done;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Rejects the rows of a chunk that could not be written and moves on, like the synchronous
+     * import does; a file that cannot be read still fails the job.
+     */
+    @Override
+    public boolean skipChunk(Parameters parameters, BulkImportCheckpoint state, JobContext context,
+                             RuntimeException failure) {
+        if (failure instanceof UncheckedIOException) {
+            throw failure;
+        }
+        try {
+            boolean done = bulkImportService.rejectChunk(parameters.target(), Path.of(parameters.file()),
+                    parameters.contentType(), state, failure);
+            context.setProcessed(state.getOffset());
+            return done;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public Object result(Parameters parameters, BulkImportCheckpoint state) {
+        return state.getResult();
+    }
+
+    @Override
+    public void cleanUp(Parameters parameters) {
+        try {
+            Files.deleteIfExists(Path.of(parameters.file()));
+        } catch (IOException ex) {
+            log.warn("Failed to delete spooled upload {}: {}", parameters.file(), ex.getMessage());
+        }
+    }
+
+    /**
+     * @param target what the rows are.
+     * @param contentType the content type of the upload, NDJSON or CSV.
+     * @param file the spooled upload.
+     */
+    public record Parameters(BulkImportService.Target target, String contentType, String file) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.casado.sb3.job;
+
+import com.casado.sb3.dto.ReassignResultDto;
+import com.casado.sb3.service.DepartmentDeletionMode;
+import com.casado.sb3.service.ReorganizationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes a department batch by batch, see {@link ReorganizationService#deleteDepartment}. Each
+ * batch leaves the department, so the statistics so far are all the checkpoint has to carry.
+ */
+@Component
+@RequiredArgsConstructor
+public class DepartmentDeletionJobHandler implements JobHandler<DepartmentDeletionJobHandler.Parameters, ReassignResultDto> {
+
+    public static final String TYPE = "department-deletion";
+
+    private final ReorganizationService reorganizationService;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Class<Parameters> parametersType() {
+        return Parameters.class;
+    }
+
+    @Override
+    public Class<ReassignResultDto> stateType() {
+        return ReassignResultDto.class;
+    }
+
+    @Override
+    public ReassignResultDto start(Parameters parameters, JobContext context) {
+        long total = reorganizationService.checkDeletion(parameters.departmentId(), parameters.mode(),
+                parameters.targetId(), parameters.expectedVersion());
+        context.setTotal(total);
+        ReassignResultDto state = new ReassignResultDto();
+        state.setRequested(total);
+        return state;
+    }
+
+    @Override
+    public boolean runChunk(Parameters parameters, ReassignResultDto state, JobContext context) {
+        long before = state.getMoved() + state.getDeleted();
+        boolean done = reorganizationService.deleteDepartmentBatch(parameters.departmentId(), parameters.mode(),
+                parameters.targetId(), parameters.expectedVersion(), state);
+        context.addProcessed(state.getMoved() + state.getDeleted() - before);
+        return done;
+    }
+
+    /**
+     * @param departmentId the department to delete.
+     * @param mode what happens to its employees.
+     * @param targetId the department to move them to, for {@link DepartmentDeletionMode#REASSIGN}.
+     * @param expectedVersion the version the client based the deletion on, null to skip the check.
+     */
+    public record Parameters(Long departmentId, DepartmentDeletionMode mode, Long targetId, Long expectedVersion) {
+    }
+}
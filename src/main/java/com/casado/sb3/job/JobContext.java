@@ -0,0 +1,27 @@
+package com.casado.sb3.job;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Progress of a job, reported by its handler and stored with each checkpoint.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+public class JobContext {
+
+    private final String jobId;
+
+    /**
+     * The amount of work, null when unknown.
+     */
+    private Long total;
+
+    private long processed;
+
+    public void addProcessed(long count) {
+        processed += count;
+    }
+}
@@ -0,0 +1,60 @@
+package com.casado.sb3.job;
+
+/**
+ * One kind of background job. A job is split into chunks, each run in its own transaction
+ * together with the update of the job row: the state left behind by a chunk is stored as the
+ * job's checkpoint when, and only when, the chunk commits, and the next chunk (possibly in
+ * another process after a restart) starts from it.
+ *
+ * @param <P> the parameters, fixed when the job is submitted.
+ * @param <S> the state carried from chunk to chunk, serialized to JSON between chunks.
+ */
+public interface JobHandler<P, S> {
+
+    /**
+     * The job type, also the key of its concurrency limit {@code app.jobs.concurrency.<type>}.
+     */
+    String type();
+
+    Class<P> parametersType();
+
+    Class<S> stateType();
+
+    /**
+     * Validates the parameters when the job is submitted and returns the initial state. Runs
+     * in the submitting transaction, so an exception rejects the job.
+     */
+    S start(P parameters, JobContext context);
+
+    /**
+     * Runs the next chunk inside the job's chunk transaction, updating the state and the
+     * progress in place.
+     *
+     * @return true when this was the last chunk.
+     */
+    boolean runChunk(P parameters, S state, JobContext context);
+
+    /**
+     * Gives up on the next chunk after {@link #runChunk} failed with the given exception, e.g. by
+     * recording its items as failed, and moves the state past it. Runs in a new chunk
+     * transaction, stored as the checkpoint like a chunk. The default rethrows, failing the job.
+     *
+     * @return true when this was the last chunk.
+     */
+    default boolean skipChunk(P parameters, S state, JobContext context, RuntimeException failure) {
+        throw failure;
+    }
+
+    /**
+     * The result reported once the job is completed.
+     */
+    default Object result(P parameters, S state) {
+        return state;
+    }
+
+    /**
+     * Releases what the job held outside the database once it completed or failed.
+     */
+    default void cleanUp(P parameters) {
+    }
+}
@@ -0,0 +1,353 @@
+package com.casado.sb3.job;
+
+import com.casado.sb3.entity.Job;
+import com.casado.sb3.repository.JobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the queued jobs of the {@code job} table on a fixed pool of {@code app.jobs.max-threads}
+ * worker threads, with at most {@code app.jobs.concurrency.<type>} jobs of one type at a time
+ * ({@code app.jobs.default-concurrency} when unset). A single dispatcher thread claims queued jobs
+ * while permits are free, so the pool never queues work of its own: waiting jobs stay in the
+ * table. Woken when a job is submitted or finishes, and polls every {@code app.jobs.poll-interval}
+ * as a fallback. Types at their limit are left out of the query, so their backlog cannot keep
+ * the jobs of other types from being claimed.
+ * <p>
+ * A chunk that fails with a transient database error (a lock or query timeout, a deadlock, a
+ * lost connection) is retried up to {@code app.jobs.chunk-retry.max-attempts} times with
+ * exponential, randomly jittered back-off ({@code app.jobs.chunk-retry.*}). A chunk that still
+ * fails is handed to {@link JobHandler#skipChunk}, which fails the job unless the handler can
+ * skip it.
+ * <p>
+ * Jobs left running by a previous process are queued again on start and resume from their last
+ * checkpoint. On shutdown the workers stop after their current chunk and requeue their jobs.
+ */
+@Slf4j
+@Component
+public class JobScheduler implements SmartLifecycle {
+
+    private final JobRepository jobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<JobHandler<?, ?>> handlerProvider;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final int maxThreads;
+    private final int defaultConcurrency;
+    private final Duration pollInterval;
+    private final RetryTemplate chunkRetry;
+
+    private final Map<String, Semaphore> typePermits = new ConcurrentHashMap<>();
+    private final Semaphore threadPermits;
+    private final AtomicInteger active = new AtomicInteger();
+
+    private volatile Map<String, JobHandler<?, ?>> handlers;
+    private volatile boolean running;
+    private volatile Thread dispatcher;
+    private ExecutorService workers;
+
+    // handlers are resolved on start: they depend on services that submit jobs
+    public JobScheduler(JobRepository jobRepository, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                        ObjectProvider<JobHandler<?, ?>> handlerProvider, Environment environment,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.jobs.max-threads:4}") int maxThreads,
+                        @Value("${app.jobs.default-concurrency:1}") int defaultConcurrency,
+                        @Value("${app.jobs.poll-interval:5s}") Duration pollInterval,
+                        @Value("${app.jobs.chunk-retry.max-attempts:3}") int chunkMaxAttempts,
+                        @Value("${app.jobs.chunk-retry.delay:1s}") Duration chunkRetryDelay,
+                        @Value("${app.jobs.chunk-retry.max-delay:30s}") Duration chunkRetryMaxDelay) {
+        this.jobRepository = jobRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.handlerProvider = handlerProvider;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.maxThreads = maxThreads;
+        this.defaultConcurrency = defaultConcurrency;
+        this.pollInterval = pollInterval;
+        this.threadPermits = new Semaphore(maxThreads);
+        this.chunkRetry = RetryTemplate.builder()
+                .maxAttempts(chunkMaxAttempts)
+                .exponentialBackoff(chunkRetryDelay, 2, chunkRetryMaxDelay, true)
+                .retryOn(TransientDataAccessException.class)
+                .retryOn(RecoverableDataAccessException.class)
+                .traversingCauses()
+                .build();
+        Gauge.builder("app.jobs.running", active, AtomicInteger::get)
+                .description("Jobs running in this process")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the handler of a job type.
+     *
+     * @throws IllegalArgumentException if no handler has this type.
+     */
+    @SuppressWarnings("unchecked")
+    public <P> JobHandler<P, ?> handler(String type) {
+        JobHandler<?, ?> handler = handlers().get(type);
+        if (handler == null) {
+            throw new IllegalArgumentException("Unknown job type " + type);
+        }
+        return (JobHandler<P, ?>) handler;
+    }
+
+    /**
+     * Signals that a job was queued.
+     */
+    public void wakeUp() {
+        LockSupport.unpark(dispatcher);
+    }
+
+    @Override
+    public void start() {
+        transactionTemplate.executeWithoutResult(status -> {
+            int requeued = jobRepository.requeueRunning();
+            if (requeued > 0) {
+                log.info("Resuming {} interrupted jobs", requeued);
+            }
+        });
+        running = true;
+        AtomicInteger workerNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(maxThreads, runnable -> Thread.ofPlatform()
+                .name("job-worker-" + workerNumber.incrementAndGet())
+                .daemon()
+                .unstarted(runnable));
+        dispatcher = Thread.ofPlatform().name("job-dispatcher").daemon().start(this::dispatchLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = dispatcher;
+        try {
+            if (thread != null) {
+                LockSupport.unpark(thread);
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            }
+            if (workers != null) {
+                workers.shutdown();
+                workers.awaitTermination(30, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * The default phase, after the web server and the background writers: jobs start once
+     * everything they write to is up, and stop first, so the audit trail and the outbox still
+     * take the events of their last chunks.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+
+    private Map<String, JobHandler<?, ?>> handlers() {
+        Map<String, JobHandler<?, ?>> resolved = handlers;
+        if (resolved == null) {
+            resolved = handlerProvider.orderedStream()
+                    .collect(Collectors.toUnmodifiableMap(JobHandler::type, Function.identity()));
+            handlers = resolved;
+        }
+        return resolved;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                dispatch();
+            } catch (RuntimeException ex) {
+                log.error("Failed to dispatch jobs", ex);
+            }
+            LockSupport.parkNanos(pollInterval.toNanos());
+        }
+    }
+
+    private void dispatch() {
+        if (threadPermits.availablePermits() == 0) {
+            return;
+        }
+        List<String> saturated = typePermits.entrySet().stream()
+                .filter(entry -> entry.getValue().availablePermits() == 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        List<Job> queued = transactionTemplate.execute(status -> findQueued(saturated));
+        for (Job job : Objects.requireNonNull(queued)) {
+            JobHandler<?, ?> handler = handlers().get(job.getType());
+            if (handler == null) {
+                fail(job.getId(), job.getType(), "Unknown job type " + job.getType());
+                continue;
+            }
+            Semaphore permits = typePermits.computeIfAbsent(job.getType(), type -> new Semaphore(
+                    environment.getProperty("app.jobs.concurrency." + type, Integer.class, defaultConcurrency)));
+            if (!permits.tryAcquire()) {
+                continue; // this type is at its limit, a job of another type may still run
+            }
+            if (!threadPermits.tryAcquire()) {
+                permits.release();
+                return;
+            }
+            Integer claimed = transactionTemplate.execute(status -> jobRepository.claim(job.getId(), LocalDateTime.now()));
+            if (claimed == null || claimed == 0) {
+                permits.release();
+                threadPermits.release();
+                continue;
+            }
+            active.incrementAndGet();
+            workers.execute(() -> {
+                try {
+                    run(job.getId(), handler);
+                } finally {
+                    active.decrementAndGet();
+                    permits.release();
+                    threadPermits.release();
+                    wakeUp();
+                }
+            });
+        }
+    }
+
+    /**
+     * The oldest queued jobs, leaving out the types that cannot start another job now.
+     */
+    private List<Job> findQueued(Collection<String> saturatedTypes) {
+        PageRequest page = PageRequest.of(0, maxThreads * 4);
+        return saturatedTypes.isEmpty()
+                ? jobRepository.findByStatusOrderByCreatedAtAsc(JobStatus.QUEUED, page)
+                : jobRepository.findByStatusAndTypeNotInOrderByCreatedAtAsc(JobStatus.QUEUED, saturatedTypes, page);
+    }
+
+    private <P, S> void run(String jobId, JobHandler<P, S> handler) {
+        P parameters = null;
+        try {
+            Job job = transactionTemplate.execute(status -> jobRepository.findById(jobId).orElseThrow());
+            parameters = fromJson(Objects.requireNonNull(job).getParameters(), handler.parametersType());
+            P jobParameters = parameters;
+            while (running) {
+                Boolean done;
+                try {
+                    done = chunkRetry.execute(retry -> transactionTemplate.execute(status -> runChunk(jobId, handler,
+                            jobParameters, (state, context) -> handler.runChunk(jobParameters, state, context))));
+                } catch (RuntimeException ex) {
+                    done = transactionTemplate.execute(status -> runChunk(jobId, handler, jobParameters,
+                            (state, context) -> handler.skipChunk(jobParameters, state, context, ex)));
+                }
+                if (Boolean.TRUE.equals(done)) {
+                    finished(handler.type(), JobStatus.COMPLETED);
+                    handler.cleanUp(parameters);
+                    return;
+                }
+            }
+            transactionTemplate.executeWithoutResult(status -> jobRepository.findById(jobId)
+                    .ifPresent(stopped -> stopped.setStatus(JobStatus.QUEUED))); // resumed by the next start
+        } catch (RuntimeException ex) {
+            log.warn("Job {} ({}) failed: {}", jobId, handler.type(), ex.getMessage());
+            fail(jobId, handler.type(), ex.getMessage());
+            if (parameters != null) {
+                handler.cleanUp(parameters);
+            }
+        }
+    }
+
+    /**
+     * Runs one chunk, or skips it, and stores its state as the checkpoint, in the caller's
+     * transaction.
+     */
+    private <P, S> boolean runChunk(String jobId, JobHandler<P, S> handler, P parameters,
+                                    BiPredicate<S, JobContext> chunk) {
+        Job job = jobRepository.findById(jobId).orElseThrow();
+        S state = fromJson(job.getCheckpoint(), handler.stateType());
+        JobContext context = new JobContext(jobId, job.getTotal(), job.getProcessed());
+
+        boolean done = chunk.test(state, context);
+
+        Job current = jobRepository.findById(jobId).orElseThrow(); // the chunk may have cleared the persistence context
+        current.setCheckpoint(toJson(state));
+        current.setTotal(context.getTotal());
+        current.setProcessed(context.getProcessed());
+        current.setUpdatedAt(LocalDateTime.now());
+        if (done) {
+            current.setStatus(JobStatus.COMPLETED);
+            current.setResult(toJson(handler.result(parameters, state)));
+            current.setFinishedAt(current.getUpdatedAt());
+        }
+        return done;
+    }
+
+    private void fail(String jobId, String type, String error) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jobRepository.findById(jobId).ifPresent(job -> {
+                job.setStatus(JobStatus.FAILED);
+                job.setError(error == null ? null : error.substring(0, Math.min(error.length(), 1000)));
+                job.setFinishedAt(LocalDateTime.now());
+            }));
+        } catch (RuntimeException ex) {
+            log.error("Failed to record the failure of job {}", jobId, ex);
+        }
+        finished(type, JobStatus.FAILED);
+    }
+
+    private void finished(String type, JobStatus status) {
+        Counter.builder("app.jobs")
+                .description("Finished jobs by type and outcome")
+                .tag("type", type)
+                .tag("status", status.name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.casado.sb3.job;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
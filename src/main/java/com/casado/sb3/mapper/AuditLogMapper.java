@@ -0,0 +1,15 @@
+package com.casado.sb3.mapper;
+
+import com.casado.sb3.dto.AuditLogDto;
+import com.casado.sb3.entity.AuditLog;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface AuditLogMapper {
+
+    AuditLogDto toDto(AuditLog auditLog);
+
+    List<AuditLogDto> toDtoList(List<AuditLog> auditLogs);
+}
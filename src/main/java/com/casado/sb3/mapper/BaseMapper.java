@@ -11,13 +11,6 @@ public interface BaseMapper {
         dto.setCreatedBy(entity.getCreatedBy());
         dto.setUpdatedAt(entity.getUpdatedAt());
         dto.setUpdatedBy(entity.getUpdatedBy());
-    }
-
-    default void mapBaseFields(BaseDto dto, BaseEntity entity) {
-        // Normally these are managed by JPA, but map back if needed
-        entity.setCreatedAt(dto.getCreatedAt());
-        entity.setCreatedBy(dto.getCreatedBy());
-        entity.setUpdatedAt(dto.getUpdatedAt());
-        entity.setUpdatedBy(dto.getUpdatedBy());
+        dto.setVersion(entity.getVersion());
     }
 }
\ No newline at end of file
@@ -2,24 +2,56 @@ package com.casado.sb3.mapper;
 
 import com.casado.sb3.dto.DepartmentDto;
 import com.casado.sb3.entity.Department;
+import com.casado.sb3.repository.projection.DepartmentSummary;
 import org.mapstruct.AfterMapping;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.InheritConfiguration;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+
+import java.util.List;
 
 @Mapper(componentModel = "spring", uses = EmployeeMapper.class)
 public interface DepartmentMapper extends BaseMapper {
 
+    @Mapping(target = "employees", ignore = true)       // paged separately, never loaded here
+    @Mapping(target = "employeeCount", ignore = true)
+    @Mapping(target = "employeesNextCursor", ignore = true)
     DepartmentDto toDto(Department department);
 
+    @Mapping(target = "employees", ignore = true)
+    @Mapping(target = "employeesNextCursor", ignore = true)
+    DepartmentDto toDto(DepartmentSummary summary);
+
+    List<DepartmentDto> summariesToDtoList(List<DepartmentSummary> summaries);
+
+    @Mapping(target = "version", ignore = true)
     Department toEntity(DepartmentDto departmentDto);
 
+    /**
+     * Copies the client-editable fields onto a managed entity; id, employees, version and
+     * audit columns are left to the service and JPA.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "employees", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "createdBy", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "updatedBy", ignore = true)
+    void updateEntity(DepartmentDto departmentDto, @MappingTarget Department department);
+
+    /**
+     * Like {@link #updateEntity} but skips null fields, for partial updates.
+     */
+    @InheritConfiguration(name = "updateEntity")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    void patchEntity(DepartmentDto departmentDto, @MappingTarget Department department);
+
     @AfterMapping
     default void enrichDto(@MappingTarget DepartmentDto dto, Department entity) {
         mapBaseFields(entity, dto);
     }
-
-    @AfterMapping
-    default void enrichEntity(@MappingTarget Department entity, DepartmentDto dto) {
-        mapBaseFields(dto, entity);
-    }
 }
\ No newline at end of file
@@ -2,10 +2,14 @@ package com.casado.sb3.mapper;
 
 import com.casado.sb3.dto.EmployeeDto;
 import com.casado.sb3.entity.Employee;
+import com.casado.sb3.repository.projection.EmployeeSummary;
 import org.mapstruct.AfterMapping;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.InheritConfiguration;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 
 import java.util.List;
 
@@ -17,17 +21,37 @@ public interface EmployeeMapper extends BaseMapper {
     EmployeeDto toDto(Employee employee);
 
     @Mapping(source = "departmentId", target = "department.id")  // optional, or handle manually
+    @Mapping(target = "version", ignore = true)
     Employee toEntity(EmployeeDto employeeDto);
 
+    /**
+     * Copies the client-editable fields onto a managed entity; id, department, version and
+     * audit columns are left to the service and JPA.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "department", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "createdBy", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "updatedBy", ignore = true)
+    void updateEntity(EmployeeDto employeeDto, @MappingTarget Employee employee);
+
+    /**
+     * Like {@link #updateEntity} but skips null fields, for partial updates.
+     */
+    @InheritConfiguration(name = "updateEntity")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    void patchEntity(EmployeeDto employeeDto, @MappingTarget Employee employee);
+
     List<EmployeeDto> toDtoList(List<Employee> employees);
 
+    EmployeeDto toDto(EmployeeSummary summary);
+
+    List<EmployeeDto> summariesToDtoList(List<EmployeeSummary> summaries);
+
     @AfterMapping
     default void enrichDto(@MappingTarget EmployeeDto dto, Employee entity) {
         mapBaseFields(entity, dto);
     }
-
-    @AfterMapping
-    default void enrichEntity(@MappingTarget Employee entity, EmployeeDto dto) {
-        mapBaseFields(dto, entity);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.casado.sb3.mapper;
+
+import com.casado.sb3.dto.JobDto;
+import com.casado.sb3.entity.Job;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface JobMapper {
+
+    JobDto toDto(Job job);
+}
@@ -0,0 +1,18 @@
+package com.casado.sb3.mapper;
+
+import com.casado.sb3.dto.ChangeEventDto;
+import com.casado.sb3.entity.OutboxEvent;
+import com.casado.sb3.util.CursorUtils;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", imports = CursorUtils.class)
+public interface OutboxEventMapper {
+
+    @Mapping(target = "cursor", expression = "java(CursorUtils.encode(event.getPosition()))")
+    ChangeEventDto toDto(OutboxEvent event);
+
+    List<ChangeEventDto> toDtoList(List<OutboxEvent> events);
+}
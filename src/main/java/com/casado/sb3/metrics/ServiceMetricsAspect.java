@@ -0,0 +1,52 @@
+package com.casado.sb3.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public call into {@code DepartmentService} and {@code EmployeeService}
+ * ({@code app.service.calls}) and counts the SQL statements each call issued
+ * ({@code app.service.db.roundtrips}), both tagged by service and method.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final StatementCountingInspector statementCountingInspector;
+
+    @Around("within(com.casado.sb3.service.DepartmentService) || within(com.casado.sb3.service.EmployeeService)")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        long statementsBefore = statementCountingInspector.currentThreadCount();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            exception = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder("app.service.calls")
+                    .description("Service method latency")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+            Counter.builder("app.service.db.roundtrips")
+                    .description("SQL statements issued by service methods")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .increment(statementCountingInspector.currentThreadCount() - statementsBefore);
+        }
+    }
+}
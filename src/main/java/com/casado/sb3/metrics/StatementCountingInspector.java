@@ -0,0 +1,33 @@
+package com.casado.sb3.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so callers can attribute
+ * database round trips to the unit of work they wrap. The SQL itself is passed through untouched.
+ * <p>
+ * Only statements that go through Hibernate are seen: plain JDBC work such as the
+ * {@code JdbcTemplate} batches of the audit writer or the replica heartbeat is not counted.
+ * Those run on their own threads, outside any service call, so the per-call counts are complete
+ * for the service methods today.
+ */
+@Component
+public class StatementCountingInspector implements StatementInspector {
+
+    private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get()[0]++;
+        return sql;
+    }
+
+    /**
+     * Returns the number of statements prepared on the current thread so far; callers take the
+     * difference between two readings.
+     */
+    public long currentThreadCount() {
+        return STATEMENTS.get()[0];
+    }
+}
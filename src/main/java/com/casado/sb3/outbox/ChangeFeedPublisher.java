@@ -0,0 +1,162 @@
+package com.casado.sb3.outbox;
+
+import com.casado.sb3.dto.ChangeEventDto;
+import com.casado.sb3.util.CursorUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes relayed changes to the open {@code /api/changes/stream} connections. A subscriber first
+ * replays the backlog from the database; changes relayed meanwhile are held back and sent once
+ * the replay caught up, so every subscriber sees each position exactly once and in order.
+ * <p>
+ * {@link #publish} only appends to each subscriber's buffer and never touches a socket: every
+ * subscriber is drained by its own virtual thread, so a slow client cannot hold up the relay or
+ * the other clients. A client that falls {@code app.changes.subscriber-buffer} events behind is
+ * completed and resumes from its {@code Last-Event-ID} when it reconnects.
+ */
+@Slf4j
+@Component
+public class ChangeFeedPublisher {
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final int bufferCapacity;
+
+    public ChangeFeedPublisher(@Value("${app.changes.subscriber-buffer:1000}") int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    /**
+     * Registers a stream that has seen every change up to the given position.
+     */
+    public Subscriber register(SseEmitter emitter, long afterPosition) {
+        Subscriber subscriber = new Subscriber(emitter, afterPosition);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        return subscriber;
+    }
+
+    /**
+     * Hands the events to every subscriber without blocking.
+     */
+    public void publish(List<ChangeEventDto> events) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(events)) {
+                log.debug("Completing change feed subscriber that fell {} events behind", bufferCapacity);
+                subscribers.remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    public final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<ChangeEventDto> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingSize = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final Object sendLock = new Object();
+        private volatile boolean live;
+        private long lastSent;
+
+        private Subscriber(SseEmitter emitter, long lastSent) {
+            this.emitter = emitter;
+            this.lastSent = lastSent;
+        }
+
+        /**
+         * Sends one page of the backlog replay, on the calling thread.
+         */
+        public void replay(List<ChangeEventDto> events) throws IOException {
+            synchronized (sendLock) {
+                for (ChangeEventDto event : events) {
+                    send(event);
+                }
+            }
+        }
+
+        /**
+         * Ends the replay: the changes relayed meanwhile and all later ones are sent by the
+         * subscriber's sender.
+         */
+        public void goLive() {
+            live = true;
+            scheduleDrain();
+        }
+
+        /**
+         * Buffers the events, and wakes the sender once live.
+         *
+         * @return false when the buffer is full and the subscriber must be dropped.
+         */
+        private boolean offer(List<ChangeEventDto> events) {
+            if (pendingSize.addAndGet(events.size()) > bufferCapacity) {
+                return false;
+            }
+            pending.addAll(events);
+            if (live) {
+                scheduleDrain();
+            }
+            return true;
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                synchronized (sendLock) {
+                    ChangeEventDto event;
+                    while ((event = pending.poll()) != null) {
+                        pendingSize.decrementAndGet();
+                        send(event);
+                    }
+                }
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Dropping change feed subscriber: {}", ex.getMessage());
+                subscribers.remove(this);
+                emitter.completeWithError(ex);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            if (!pending.isEmpty()) {
+                scheduleDrain(); // offered after the last poll, before the flag was cleared
+            }
+        }
+
+        private void send(ChangeEventDto event) throws IOException {
+            long position = CursorUtils.decode(event.getCursor());
+            if (position <= lastSent) {
+                return; // already sent by the replay
+            }
+            emitter.send(SseEmitter.event().id(event.getCursor()).name("change").data(event));
+            lastSent = position;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.casado.sb3.outbox;
+
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.entity.OutboxEvent;
+import com.casado.sb3.mapper.OutboxEventMapper;
+import com.casado.sb3.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Assigns feed positions to committed outbox rows and pushes them to the stream subscribers.
+ * Sequence IDs are handed out before commit, so they do not tell the order in which rows become
+ * visible; a single relay thread numbering rows as it sees them does, and a consumer reading the
+ * feed by position can never skip a change committed late. Woken after every committing write,
+ * and polls every {@code app.outbox.poll-interval} as a fallback.
+ * <p>
+ * The numbering assumes a single relay: the last position is kept in memory, read once on start,
+ * so only one application instance may run against a database. Several instances would hand out
+ * the same positions; they need a leader or a database sequence for the positions.
+ */
+@Slf4j
+@Component
+public class OutboxRelay implements SmartLifecycle {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventMapper outboxEventMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeFeedPublisher changeFeedPublisher;
+    private final int batchSize;
+    private final Duration pollInterval;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+    private long lastPosition;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxEventMapper outboxEventMapper,
+                       TransactionTemplate transactionTemplate, ChangeFeedPublisher changeFeedPublisher,
+                       @Value("${app.outbox.batch-size:500}") int batchSize,
+                       @Value("${app.outbox.poll-interval:1s}") Duration pollInterval) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxEventMapper = outboxEventMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.changeFeedPublisher = changeFeedPublisher;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Signals that new outbox rows were committed.
+     */
+    public void wakeUp() {
+        LockSupport.unpark(worker);
+    }
+
+    @Override
+    public void start() {
+        lastPosition = outboxEventRepository.findMaxPosition();
+        running = true;
+        worker = Thread.ofPlatform().name("outbox-relay").daemon().start(this::relayLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // keeps relaying until the requests and jobs that append to the outbox have stopped
+        return ProjectConstants.BACKGROUND_WRITER_PHASE;
+    }
+
+    private void relayLoop() {
+        while (running) {
+            int relayed;
+            try {
+                relayed = relayBatch();
+            } catch (RuntimeException ex) {
+                log.error("Failed to relay outbox events", ex);
+                relayed = 0;
+            }
+            if (relayed < batchSize) {
+                LockSupport.parkNanos(pollInterval.toNanos());
+            }
+        }
+    }
+
+    private int relayBatch() {
+        long[] position = {lastPosition};
+        List<OutboxEvent> relayed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> pending = outboxEventRepository.findByPositionIsNullOrderByIdAsc(
+                    PageRequest.of(0, batchSize));
+            pending.forEach(event -> event.setPosition(++position[0]));
+            return pending;
+        });
+        if (relayed == null || relayed.isEmpty()) {
+            return 0;
+        }
+        lastPosition = position[0];
+        changeFeedPublisher.publish(outboxEventMapper.toDtoList(relayed));
+        return relayed.size();
+    }
+}
@@ -0,0 +1,18 @@
+package com.casado.sb3.repository;
+
+import com.casado.sb3.entity.AuditLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+
+    /**
+     * Keyset page of the history of one entity, oldest change first.
+     */
+    List<AuditLog> findByEntityTypeAndEntityIdAndIdGreaterThanOrderByIdAsc(String entityType, Long entityId,
+                                                                           Long afterId, Pageable pageable);
+}
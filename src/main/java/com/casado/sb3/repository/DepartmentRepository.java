@@ -1,13 +1,46 @@
 package com.casado.sb3.repository;
 
 import com.casado.sb3.entity.Department;
+import com.casado.sb3.repository.projection.DepartmentSummary;
+import com.casado.sb3.repository.projection.VersionStamp;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
 
+    /**
+     * Served from the query cache; the cached result is invalidated by any write to the table.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Department> findByName(String name);
+
+    List<Department> findByNameIn(Collection<String> names);
+
+    @Query("select new com.casado.sb3.repository.projection.DepartmentSummary("
+            + "d.id, d.name, count(e.id), d.createdAt, d.createdBy, d.updatedAt, d.updatedBy, d.version) "
+            + "from Department d left join d.employees e "
+            + "group by d.id, d.name, d.createdAt, d.createdBy, d.updatedAt, d.updatedBy, d.version "
+            + "order by d.id")
+    List<DepartmentSummary> findAllSummaries();
+
+    /**
+     * Validators of one department and of its employees, without loading either. The employees
+     * are validated by the Employee counter of {@code table_version}, which every committed
+     * employee change moves forward; a count or checksum of the rows could repeat. No
+     * last-modified time: deleting an employee would not move it forward.
+     */
+    @Query("select new com.casado.sb3.repository.projection.VersionStamp(d.id, d.version, "
+            + "coalesce((select t.version from TableVersion t where t.name = 'Employee'), 0L)) "
+            + "from Department d where d.id = :id")
+    Optional<VersionStamp> findStampById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -1,15 +1,145 @@
 package com.casado.sb3.repository;
 
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.entity.Department;
 import com.casado.sb3.entity.Employee;
+import com.casado.sb3.repository.projection.EmployeeName;
+import com.casado.sb3.repository.projection.EmployeeSummary;
+import com.casado.sb3.repository.projection.VersionStamp;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 
+    String SUMMARY_SELECT = "select new com.casado.sb3.repository.projection.EmployeeSummary("
+            + "e.id, e.name, d.id, d.name, e.createdAt, e.createdBy, e.updatedAt, e.updatedBy, e.version) "
+            + "from Employee e left join e.department d ";
+
+    @Override
+    @EntityGraph(attributePaths = "department")
+    List<Employee> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "department")
+    Optional<Employee> findById(Long id);
+
     List<Employee> findByNameContainingIgnoreCase(String name);
 
+    @EntityGraph(attributePaths = "department")
     List<Employee> findByDepartmentId(Long departmentId);
-}
\ No newline at end of file
+
+    /**
+     * Forward-only, read-only cursor over all employees in ID order. Must be consumed
+     * inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ProjectConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select e from Employee e left join fetch e.department order by e.id")
+    Stream<Employee> streamAllByOrderByIdAsc();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ProjectConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.casado.sb3.repository.projection.EmployeeName(e.id, e.name) from Employee e")
+    Stream<EmployeeName> streamAllNames();
+
+    @Query(SUMMARY_SELECT + "order by e.id")
+    List<EmployeeSummary> findAllSummaries();
+
+    /**
+     * Forward-only cursor over the summaries of all employees in ID order; no entity is
+     * materialised, so the persistence context stays empty however many rows are read. Must be
+     * consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ProjectConstants.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SUMMARY_SELECT + "order by e.id")
+    Stream<EmployeeSummary> streamAllSummaries();
+
+    @Query(SUMMARY_SELECT + "where e.id in :ids")
+    List<EmployeeSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset page of the employees of one department, in ID order.
+     */
+    @Query(SUMMARY_SELECT + "where d.id = :departmentId and e.id > :afterId order by e.id")
+    List<EmployeeSummary> findSummariesByDepartmentIdAfter(@Param("departmentId") Long departmentId,
+                                                           @Param("afterId") Long afterId,
+                                                           Pageable pageable);
+
+    long countByDepartmentId(Long departmentId);
+
+    @Query("select e.id from Employee e where e.department.id = :departmentId order by e.id")
+    List<Long> findIdsByDepartmentId(@Param("departmentId") Long departmentId, Pageable pageable);
+
+    /**
+     * Locks the given employees until the end of the transaction, in ID order, so the state
+     * read next is still the one a following bulk statement changes.
+     *
+     * @return the IDs of the employees that exist.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e.id from Employee e where e.id in :ids order by e.id")
+    List<Long> lockByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves the given employees to a department in one statement. No entity is loaded, so the
+     * version and the audit columns are maintained here. Pending changes are flushed first and
+     * the persistence context is cleared afterwards, so no stale employee stays managed.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Employee e set e.department = :department, e.version = coalesce(e.version, 0) + 1, "
+            + "e.updatedAt = :updatedAt, e.updatedBy = :updatedBy where e.id in :ids")
+    int moveToDepartment(@Param("ids") Collection<Long> ids,
+                         @Param("department") Department department,
+                         @Param("updatedAt") LocalDateTime updatedAt,
+                         @Param("updatedBy") String updatedBy);
+
+    /**
+     * Deletes the given employees in one statement, without loading them. Pending changes are
+     * flushed first and the persistence context is cleared afterwards.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Employee e where e.id in :ids")
+    int bulkDeleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Keyset (seek-by-id) page: employees with an ID greater than the given one, in ID order.
+     * Only the page size of the pageable is honoured, no count query is issued.
+     */
+    @Query(SUMMARY_SELECT + "where e.id > :afterId order by e.id")
+    List<EmployeeSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Validators of one employee and of its embedded department, without loading either. A move
+     * to another department moves the employee's own version forward, so the department's
+     * version is all the stamp needs of it.
+     */
+    @Query("select new com.casado.sb3.repository.projection.VersionStamp("
+            + "e.id, e.version, coalesce(d.version, -1L), "
+            + "coalesce(e.updatedAt, e.createdAt), coalesce(d.updatedAt, d.createdAt)) "
+            + "from Employee e left join e.department d where e.id = :id")
+    Optional<VersionStamp> findStampById(@Param("id") Long id);
+}
@@ -0,0 +1,44 @@
+package com.casado.sb3.repository;
+
+import com.casado.sb3.entity.Job;
+import com.casado.sb3.job.JobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JobRepository extends JpaRepository<Job, String> {
+
+    /**
+     * Jobs waiting to run, oldest first.
+     */
+    List<Job> findByStatusOrderByCreatedAtAsc(JobStatus status, Pageable pageable);
+
+    /**
+     * Jobs waiting to run, oldest first, except those of the given types.
+     */
+    List<Job> findByStatusAndTypeNotInOrderByCreatedAtAsc(JobStatus status, Collection<String> types, Pageable pageable);
+
+    /**
+     * Claims a queued job for this process; 0 when it was claimed or changed in the meantime.
+     */
+    @Modifying
+    @Query("update Job j set j.status = com.casado.sb3.job.JobStatus.RUNNING, j.startedAt = coalesce(j.startedAt, :now), "
+            + "j.updatedAt = :now where j.id = :id and j.status = com.casado.sb3.job.JobStatus.QUEUED")
+    int claim(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    /**
+     * Puts the jobs left running by a stopped or crashed process back in the queue.
+     */
+    @Modifying
+    @Query("update Job j set j.status = com.casado.sb3.job.JobStatus.QUEUED "
+            + "where j.status = com.casado.sb3.job.JobStatus.RUNNING")
+    int requeueRunning();
+}
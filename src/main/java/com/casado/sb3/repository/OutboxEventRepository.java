@@ -0,0 +1,26 @@
+package com.casado.sb3.repository;
+
+import com.casado.sb3.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Committed events not yet relayed, in insertion order.
+     */
+    List<OutboxEvent> findByPositionIsNullOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Keyset page of the change feed after the given position.
+     */
+    List<OutboxEvent> findByPositionGreaterThanOrderByPositionAsc(Long position, Pageable pageable);
+
+    @Query("select coalesce(max(o.position), 0L) from OutboxEvent o")
+    long findMaxPosition();
+}
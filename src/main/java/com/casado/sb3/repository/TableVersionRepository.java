@@ -0,0 +1,32 @@
+package com.casado.sb3.repository;
+
+import com.casado.sb3.entity.TableVersion;
+import com.casado.sb3.repository.projection.TableStamp;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TableVersionRepository extends JpaRepository<TableVersion, String> {
+
+    /**
+     * Increments the counter of a table; 0 when it has no row yet. The row stays locked until the
+     * caller's transaction ends, so it is only called right before the commit, see
+     * {@code OutboxService}.
+     */
+    @Modifying
+    @Query("update TableVersion t set t.version = t.version + 1 where t.name = :name")
+    int increment(@Param("name") String name);
+
+    /**
+     * Counters of the given tables in one statement, ordered by table name.
+     */
+    @Query("select new com.casado.sb3.repository.projection.TableStamp(t.name, t.version) "
+            + "from TableVersion t where t.name in :names order by t.name")
+    List<TableStamp> findStamps(@Param("names") Collection<String> names);
+}
@@ -0,0 +1,18 @@
+package com.casado.sb3.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a department with its headcount, selected in a single aggregate
+ * statement instead of loading the {@code employees} collection.
+ */
+public record DepartmentSummary(
+        Long id,
+        String name,
+        Long employeeCount,
+        LocalDateTime createdAt,
+        String createdBy,
+        LocalDateTime updatedAt,
+        String updatedBy,
+        Long version) {
+}
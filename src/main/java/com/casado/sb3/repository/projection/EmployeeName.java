@@ -0,0 +1,7 @@
+package com.casado.sb3.repository.projection;
+
+/**
+ * Minimal projection used to (re)build the in-memory employee name index.
+ */
+public record EmployeeName(Long id, String name) {
+}
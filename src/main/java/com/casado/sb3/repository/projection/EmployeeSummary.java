@@ -0,0 +1,19 @@
+package com.casado.sb3.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection holding exactly the columns needed to build an {@code EmployeeDto},
+ * selected in a single statement together with the department name.
+ */
+public record EmployeeSummary(
+        Long id,
+        String name,
+        Long departmentId,
+        String departmentName,
+        LocalDateTime createdAt,
+        String createdBy,
+        LocalDateTime updatedAt,
+        String updatedBy,
+        Long version) {
+}
@@ -0,0 +1,8 @@
+package com.casado.sb3.repository.projection;
+
+/**
+ * Aggregate validator of a whole table: its modification counter, which moves forward on every
+ * insert, update and delete. Read without touching the table's rows.
+ */
+public record TableStamp(String table, Long version) {
+}
@@ -0,0 +1,33 @@
+package com.casado.sb3.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Validators of one row and of the rows its representation embeds, selected instead of the
+ * entity to answer conditional requests. {@code embeddedVersion} only ever moves forward while
+ * the embedded rows change, so no two states share a stamp. {@code lastModified} is null when it
+ * cannot be trusted to move forward on every change of the representation (e.g. when an
+ * embedded row is deleted).
+ */
+public record VersionStamp(
+        Long id,
+        Long version,
+        Long embeddedVersion,
+        LocalDateTime lastModified) {
+
+    public VersionStamp(Long id, Long version, Long embeddedVersion) {
+        this(id, version, embeddedVersion, null);
+    }
+
+    public VersionStamp(Long id, Long version, Long embeddedVersion,
+                        LocalDateTime modifiedAt, LocalDateTime embeddedModifiedAt) {
+        this(id, version, embeddedVersion, latest(modifiedAt, embeddedModifiedAt));
+    }
+
+    private static LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        return first.isAfter(second) ? first : second;
+    }
+}
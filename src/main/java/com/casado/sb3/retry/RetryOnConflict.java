@@ -0,0 +1,31 @@
+package com.casado.sb3.retry;
+
+import com.casado.sb3.exception.StaleVersionException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.*;
+
+/**
+ * Re-runs a transactional write when a concurrent writer bumped the version between read and
+ * flush. Attempts are bounded and spaced by exponential, randomly jittered back-off
+ * ({@code app.retry.*}). Conflicts with a client-supplied version ({@link StaleVersionException})
+ * are never retried.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        retryFor = OptimisticLockingFailureException.class,
+        noRetryFor = StaleVersionException.class,
+        maxAttemptsExpression = "${app.retry.max-attempts:5}",
+        backoff = @Backoff(
+                delayExpression = "${app.retry.delay-ms:10}",
+                maxDelayExpression = "${app.retry.max-delay-ms:200}",
+                multiplier = 2,
+                random = true
+        )
+)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,146 @@
+package com.casado.sb3.search;
+
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory, prefix-aware index of employee names.
+ * <p>
+ * Every name is split into normalized tokens (lower case, accents stripped) and each
+ * {@code (token, id)} pair is kept in a sorted skip list. A prefix lookup is a single
+ * {@code tailSet} seek followed by a bounded forward scan, so its cost depends on the number
+ * of results requested, not on the number of employees. Multi-word queries seek on the first
+ * term and check the remaining terms against the indexed tokens of each candidate.
+ */
+@Component
+public class EmployeeNameIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<Long, String[]> tokensById = new ConcurrentHashMap<>();
+
+    /**
+     * Adds or replaces the name of an employee. Updates of one employee are serialized on its
+     * map entry, so concurrent updates never leave the tokens of an older name behind.
+     */
+    public void index(long id, String name) {
+        String[] tokens = tokenize(name);
+        tokensById.compute(id, (key, previous) -> {
+            removeEntries(id, previous);
+            for (String token : tokens) {
+                entries.add(new Entry(token, id));
+            }
+            return tokens;
+        });
+    }
+
+    /**
+     * Removes an employee from the index.
+     */
+    public void remove(long id) {
+        tokensById.computeIfPresent(id, (key, previous) -> {
+            removeEntries(id, previous);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the IDs of the employees whose name contains a word starting with each term of the
+     * query, ordered by matching word and ID.
+     *
+     * @param query one or more search terms.
+     * @param offset the number of matches to skip.
+     * @param limit the maximum number of IDs to return.
+     * @return the matching IDs.
+     */
+    public List<Long> search(String query, int offset, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        String first = terms[0];
+        Set<Long> seen = new LinkedHashSet<>();
+        List<Long> result = new ArrayList<>(limit);
+        int skipped = 0;
+        for (Entry entry : entries.tailSet(new Entry(first, Long.MIN_VALUE))) {
+            if (!entry.token().startsWith(first)) {
+                break;
+            }
+            if (!seen.add(entry.id()) || !matchesAll(entry.id(), terms)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            result.add(entry.id());
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return tokensById.size();
+    }
+
+    private void removeEntries(long id, String[] tokens) {
+        if (tokens != null) {
+            for (String token : tokens) {
+                entries.remove(new Entry(token, id));
+            }
+        }
+    }
+
+    private boolean matchesAll(long id, String[] terms) {
+        if (terms.length == 1) {
+            return true;
+        }
+        String[] tokens = tokensById.get(id);
+        if (tokens == null) {
+            return false;
+        }
+        for (int i = 1; i < terms.length; i++) {
+            boolean matched = false;
+            for (String token : tokens) {
+                if (token.startsWith(terms[i])) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalized))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private record Entry(String token, long id) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            int byToken = token.compareTo(other.token);
+            return byToken != 0 ? byToken : Long.compare(id, other.id);
+        }
+    }
+}
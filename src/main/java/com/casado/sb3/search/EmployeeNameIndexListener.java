@@ -0,0 +1,60 @@
+package com.casado.sb3.search;
+
+import com.casado.sb3.entity.Employee;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the {@link EmployeeNameIndex} in step with employee writes. Changes are applied only once
+ * the surrounding transaction commits, so rolled-back writes never become searchable. Hibernate
+ * obtains this listener from the Spring bean container.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeNameIndexListener {
+
+    private final EmployeeNameIndex employeeNameIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Employee employee) {
+        long id = employee.getId();
+        String name = employee.getName();
+        afterCommit(() -> employeeNameIndex.index(id, name));
+    }
+
+    @PostRemove
+    public void onRemove(Employee employee) {
+        long id = employee.getId();
+        afterCommit(() -> employeeNameIndex.remove(id));
+    }
+
+    /**
+     * Removes employees deleted by a bulk statement, which bypasses the entity callbacks.
+     */
+    public void removeAll(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        afterCommit(() -> removed.forEach(employeeNameIndex::remove));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,34 @@
+package com.casado.sb3.search;
+
+import com.casado.sb3.repository.EmployeeRepository;
+import com.casado.sb3.repository.projection.EmployeeName;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Builds the {@link EmployeeNameIndex} from the database once the application is ready.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmployeeNameIndexLoader {
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeNameIndex employeeNameIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long start = System.nanoTime();
+        try (Stream<EmployeeName> names = employeeRepository.streamAllNames()) {
+            names.forEach(employee -> employeeNameIndex.index(employee.id(), employee.name()));
+        }
+        log.info("Indexed {} employee names in {} ms", employeeNameIndex.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
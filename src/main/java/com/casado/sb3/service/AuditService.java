@@ -0,0 +1,39 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.dto.AuditLogDto;
+import com.casado.sb3.dto.CursorPageDto;
+import com.casado.sb3.entity.AuditLog;
+import com.casado.sb3.mapper.AuditLogMapper;
+import com.casado.sb3.repository.AuditLogRepository;
+import com.casado.sb3.util.CursorUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class AuditService {
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditLogMapper auditLogMapper;
+
+    /**
+     * Returns one keyset page of the change history of an entity, oldest first. The trail is
+     * written behind the request, so the latest changes may take a moment to show up.
+     *
+     * @param entityType the entity type, e.g. {@code Department}.
+     * @param entityId the entity ID, deleted entities keep their history.
+     * @param cursor the cursor returned with the previous page, null for the first page.
+     * @param size the number of entries per page.
+     * @return the page and the cursor of the next one.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<AuditLogDto> getHistory(String entityType, Long entityId, String cursor, int size) {
+        List<AuditLog> rows = auditLogRepository.findByEntityTypeAndEntityIdAndIdGreaterThanOrderByIdAsc(
+                entityType, entityId, CursorUtils.decode(cursor), PageRequest.of(0, size + 1));
+        return CursorUtils.toPage(rows, size, AuditLog::getId, auditLogMapper::toDtoList);
+    }
+}
@@ -0,0 +1,22 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.dto.BulkImportResultDto;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * How far a background import got through its spooled file: the next byte to read, the number
+ * of lines read, the CSV header once seen, and the outcome so far.
+ */
+@Data
+public class BulkImportCheckpoint {
+
+    private long offset;
+
+    private long line;
+
+    private List<String> header;
+
+    private BulkImportResultDto result = new BulkImportResultDto();
+}
@@ -0,0 +1,380 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.audit.AuditAction;
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.dto.BulkImportResultDto;
+import com.casado.sb3.dto.BulkRowErrorDto;
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.dto.EmployeeDto;
+import com.casado.sb3.dto.JobDto;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.job.BulkImportJobHandler;
+import com.casado.sb3.repository.DepartmentRepository;
+import com.casado.sb3.repository.EmployeeRepository;
+import com.casado.sb3.util.CsvUtils;
+import com.casado.sb3.util.OffsetLineReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports employees and departments from NDJSON or CSV streams. Rows are validated one by one
+ * and written in chunks, each chunk in its own transaction, so Hibernate can group the inserts
+ * into JDBC batches and the persistence context is cleared between chunks. Every rejected row is
+ * counted once and reported with a stable code; a chunk that fails to write rejects its rows as
+ * {@code CONFLICT} or {@code WRITE_FAILED}, with the cause logged rather than returned.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkImportService {
+
+    static final String MALFORMED = "MALFORMED";
+    static final String INVALID = "INVALID";
+    static final String DUPLICATE = "DUPLICATE";
+    static final String CONFLICT = "CONFLICT";
+    static final String WRITE_FAILED = "WRITE_FAILED";
+
+    private final EmployeeRepository employeeRepository;
+    private final DepartmentRepository departmentRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final OutboxService outboxService;
+    private final JobService jobService;
+
+    @Value("${app.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.jobs.spool-dir:${java.io.tmpdir}/sb3-jobs}")
+    private String spoolDir;
+
+    @CacheEvict(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, allEntries = true) // embedded employee lists
+    public BulkImportResultDto importEmployees(InputStream in, String contentType) throws IOException {
+        return importRows(in, contentType, EmployeeDto.class, this::writeEmployeeChunk);
+    }
+
+    public BulkImportResultDto importDepartments(InputStream in, String contentType) throws IOException {
+        return importRows(in, contentType, DepartmentDto.class, this::writeDepartmentChunk);
+    }
+
+    private <T> BulkImportResultDto importRows(InputStream in, String contentType, Class<T> type,
+                                               ChunkWriter<T> writer) throws IOException {
+        boolean csv = contentType != null && contentType.startsWith(ProjectConstants.TEXT_CSV_VALUE);
+        BulkImportResultDto result = new BulkImportResultDto();
+        List<Row<T>> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (csv && header == null) {
+                    header = CsvUtils.parseLine(line);
+                    continue;
+                }
+                result.setReceived(result.getReceived() + 1);
+
+                T value = parseRow(csv, header, line, lineNumber, type, result);
+                if (value == null) {
+                    continue;
+                }
+                chunk.add(new Row<>(lineNumber, value));
+                if (chunk.size() >= chunkSize) {
+                    flushChunk(chunk, writer, result);
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flushChunk(chunk, writer, result);
+        }
+        return result;
+    }
+
+    /**
+     * Stores an upload in {@code app.jobs.spool-dir} and queues its import as a background job,
+     * read in chunks of {@code app.bulk.chunk-size} rows, each committed with the job's checkpoint.
+     *
+     * @return the queued job.
+     */
+    public JobDto importAsync(Target target, InputStream in, String contentType) throws IOException {
+        Path directory = Path.of(spoolDir);
+        Files.createDirectories(directory);
+        Path file = Files.createTempFile(directory, "import-", ".upload");
+        try {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            return jobService.submit(BulkImportJobHandler.TYPE,
+                    new BulkImportJobHandler.Parameters(target, contentType, file.toString()));
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+    }
+
+    /**
+     * Imports the next chunk of a spooled upload in the caller's transaction: reads from the
+     * checkpointed offset until a chunk of valid rows is collected or the file ends, writes the
+     * rows and advances the checkpoint.
+     *
+     * @return true once the whole file was read.
+     */
+    @CacheEvict(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, allEntries = true) // embedded employee lists
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean importChunk(Target target, Path file, String contentType, BulkImportCheckpoint checkpoint)
+            throws IOException {
+        return target == Target.EMPLOYEES
+                ? importChunk(file, contentType, checkpoint, EmployeeDto.class, this::writeEmployeeChunk)
+                : importChunk(file, contentType, checkpoint, DepartmentDto.class, this::writeDepartmentChunk);
+    }
+
+    /**
+     * Rejects the rows of the next chunk of a spooled upload after {@link #importChunk} failed to
+     * write them, the way the synchronous import rejects a rolled-back chunk, and advances the
+     * checkpoint past it, in the caller's transaction.
+     *
+     * @return true once the whole file was read.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean rejectChunk(Target target, Path file, String contentType, BulkImportCheckpoint checkpoint,
+                               RuntimeException failure) throws IOException {
+        return target == Target.EMPLOYEES
+                ? rejectChunk(file, contentType, checkpoint, EmployeeDto.class, failure)
+                : rejectChunk(file, contentType, checkpoint, DepartmentDto.class, failure);
+    }
+
+    private <T> boolean rejectChunk(Path file, String contentType, BulkImportCheckpoint checkpoint, Class<T> type,
+                                    RuntimeException failure) throws IOException {
+        List<Row<T>> chunk = new ArrayList<>(chunkSize);
+        boolean exhausted = readChunk(file, contentType, checkpoint, type, chunk);
+        if (!chunk.isEmpty()) {
+            rejectRolledBack(chunk, checkpoint.getResult(), failure);
+        }
+        return exhausted;
+    }
+
+    private <T> boolean importChunk(Path file, String contentType, BulkImportCheckpoint checkpoint, Class<T> type,
+                                    ChunkWriter<T> writer) throws IOException {
+        List<Row<T>> chunk = new ArrayList<>(chunkSize);
+        boolean exhausted = readChunk(file, contentType, checkpoint, type, chunk);
+        if (!chunk.isEmpty()) {
+            BulkImportResultDto result = checkpoint.getResult();
+            int written = writer.write(chunk, result);
+            entityManager.flush();
+            entityManager.clear();
+            result.setImported(result.getImported() + written);
+        }
+        return exhausted;
+    }
+
+    /**
+     * Reads from the checkpointed offset until a chunk of valid rows is collected or the file
+     * ends, rejecting the invalid rows and advancing the checkpoint.
+     *
+     * @return true once the whole file was read.
+     */
+    private <T> boolean readChunk(Path file, String contentType, BulkImportCheckpoint checkpoint, Class<T> type,
+                                  List<Row<T>> chunk) throws IOException {
+        boolean csv = contentType != null && contentType.startsWith(ProjectConstants.TEXT_CSV_VALUE);
+        BulkImportResultDto result = checkpoint.getResult();
+        boolean exhausted = false;
+
+        try (OffsetLineReader reader = OffsetLineReader.open(file, checkpoint.getOffset())) {
+            while (chunk.size() < chunkSize) {
+                String line = reader.readLine();
+                if (line == null) {
+                    exhausted = true;
+                    break;
+                }
+                long lineNumber = checkpoint.getLine() + 1;
+                checkpoint.setLine(lineNumber);
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (csv && checkpoint.getHeader() == null) {
+                    checkpoint.setHeader(CsvUtils.parseLine(line));
+                    continue;
+                }
+                result.setReceived(result.getReceived() + 1);
+
+                T value = parseRow(csv, checkpoint.getHeader(), line, lineNumber, type, result);
+                if (value != null) {
+                    chunk.add(new Row<>(lineNumber, value));
+                }
+            }
+            checkpoint.setOffset(reader.position());
+        }
+        return exhausted;
+    }
+
+    private <T> T parseRow(boolean csv, List<String> header, String line, long lineNumber, Class<T> type,
+                           BulkImportResultDto result) {
+        T value;
+        try {
+            value = csv ? fromCsv(header, line, type) : objectMapper.readValue(line, type);
+        } catch (JsonProcessingException | IllegalArgumentException ex) {
+            reject(result, lineNumber, MALFORMED, "Malformed row");
+            return null;
+        }
+        String violations = validate(value);
+        if (violations != null) {
+            reject(result, lineNumber, INVALID, violations);
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * Writes a chunk in its own transaction. Rows the writer rejects are only counted once the
+     * chunk commits; if it rolls back, every row of the chunk is rejected once with the same code.
+     */
+    private <T> void flushChunk(List<Row<T>> chunk, ChunkWriter<T> writer, BulkImportResultDto result) {
+        BulkImportResultDto chunkResult = new BulkImportResultDto();
+        try {
+            Integer written = transactionTemplate.execute(status -> {
+                int count = writer.write(chunk, chunkResult);
+                entityManager.flush();
+                entityManager.clear();
+                return count;
+            });
+            result.setImported(result.getImported() + (written == null ? 0 : written));
+            result.setFailed(result.getFailed() + chunkResult.getFailed());
+            chunkResult.getErrors().stream()
+                    .limit(ProjectConstants.MAX_REPORTED_ERRORS - result.getErrors().size())
+                    .forEach(result.getErrors()::add);
+        } catch (RuntimeException ex) {
+            rejectRolledBack(chunk, result, ex);
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Rejects every row of a chunk that was rolled back, once and with the same code.
+     */
+    private static void rejectRolledBack(List<? extends Row<?>> chunk, BulkImportResultDto result,
+                                         RuntimeException ex) {
+        log.warn("Bulk import chunk of lines {}-{} rolled back: {}", chunk.get(0).line(),
+                chunk.get(chunk.size() - 1).line(), ex.getMessage());
+        boolean conflict = ex instanceof DataIntegrityViolationException;
+        chunk.forEach(row -> reject(result, row.line(), conflict ? CONFLICT : WRITE_FAILED, conflict
+                ? "Row conflicts with existing data, its chunk was rolled back"
+                : "Row could not be written, its chunk was rolled back"));
+    }
+
+    private int writeEmployeeChunk(List<Row<EmployeeDto>> chunk, BulkImportResultDto result) {
+        Set<String> names = chunk.stream()
+                .map(row -> row.value().getDepartmentName())
+                .collect(Collectors.toSet());
+        Map<String, Department> departments = departmentRepository.findByNameIn(names).stream()
+                .collect(Collectors.toMap(Department::getName, Function.identity(), (first, second) -> first));
+
+        List<Employee> employees = new ArrayList<>(chunk.size());
+        for (Row<EmployeeDto> row : chunk) {
+            Department department = departments.computeIfAbsent(row.value().getDepartmentName(), name -> {
+                Department newDepartment = new Department();
+                newDepartment.setName(name);
+                Department saved = departmentRepository.save(newDepartment);
+                outboxService.append(saved, AuditAction.CREATE);
+                return saved;
+            });
+            Employee employee = new Employee();
+            employee.setName(row.value().getName());
+            employee.setDepartment(department);
+            employees.add(employee);
+        }
+        employeeRepository.saveAll(employees);
+        outboxService.appendAll(employees, AuditAction.CREATE);
+        return employees.size();
+    }
+
+    private int writeDepartmentChunk(List<Row<DepartmentDto>> chunk, BulkImportResultDto result) {
+        Set<String> existing = departmentRepository.findByNameIn(chunk.stream()
+                        .map(row -> row.value().getName())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .map(Department::getName)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        List<Department> departments = new ArrayList<>(chunk.size());
+        for (Row<DepartmentDto> row : chunk) {
+            if (!existing.add(row.value().getName())) {
+                reject(result, row.line(), DUPLICATE, "Department already exists");
+                continue;
+            }
+            Department department = new Department();
+            department.setName(row.value().getName());
+            departments.add(department);
+        }
+        departmentRepository.saveAll(departments);
+        outboxService.appendDepartments(departments, AuditAction.CREATE);
+        return departments.size();
+    }
+
+    private <T> T fromCsv(List<String> header, String line, Class<T> type) {
+        List<String> fields = CsvUtils.parseLine(line);
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < header.size() && i < fields.size(); i++) {
+            values.put(header.get(i), fields.get(i).isEmpty() ? null : fields.get(i));
+        }
+        return objectMapper.convertValue(values, type);
+    }
+
+    private <T> String validate(T value) {
+        Set<ConstraintViolation<T>> violations = validator.validate(value);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static void reject(BulkImportResultDto result, long line, String code, String error) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < ProjectConstants.MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new BulkRowErrorDto(line, code, error));
+        }
+    }
+
+    public enum Target {
+        EMPLOYEES,
+        DEPARTMENTS
+    }
+
+    private record Row<T>(long line, T value) {
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        int write(List<Row<T>> chunk, BulkImportResultDto result);
+    }
+}
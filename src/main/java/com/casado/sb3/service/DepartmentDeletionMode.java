@@ -0,0 +1,13 @@
+package com.casado.sb3.service;
+
+/**
+ * What happens to the employees of a deleted department.
+ */
+public enum DepartmentDeletionMode {
+    /** The employees are deleted with the department. */
+    CASCADE,
+    /** The employees are moved to another department first. */
+    REASSIGN,
+    /** The employees are kept without a department. */
+    ORPHAN
+}
@@ -1,17 +1,36 @@
 package com.casado.sb3.service;
 
+import com.casado.sb3.audit.AuditAction;
+import com.casado.sb3.coalesce.Coalesced;
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.datasource.ReadFromPrimary;
+import com.casado.sb3.dto.CursorPageDto;
 import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.dto.EmployeeDto;
 import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
 import com.casado.sb3.exception.DepartmentAlreadyExistsException;
 import com.casado.sb3.mapper.DepartmentMapper;
+import com.casado.sb3.mapper.EmployeeMapper;
 import com.casado.sb3.repository.DepartmentRepository;
+import com.casado.sb3.repository.EmployeeRepository;
+import com.casado.sb3.repository.TableVersionRepository;
+import com.casado.sb3.repository.projection.EmployeeSummary;
+import com.casado.sb3.repository.projection.TableStamp;
+import com.casado.sb3.repository.projection.VersionStamp;
+import com.casado.sb3.retry.RetryOnConflict;
+import com.casado.sb3.util.CursorUtils;
+import com.casado.sb3.util.VersionUtils;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Random;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -19,43 +38,163 @@ public class DepartmentService {
 
     private final DepartmentRepository departmentRepository;
     private final DepartmentMapper departmentMapper;
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeMapper employeeMapper;
+    private final TableVersionRepository tableVersionRepository;
+    private final OutboxService outboxService;
 
+    @Coalesced
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public List<DepartmentDto> getAllDepartments() {
-        return departmentRepository.findAll()
-                .stream()
-                .map(departmentMapper::toDto)
-                .collect(Collectors.toList());
+        return getAllDepartmentsUncoalesced();
+    }
+
+    /**
+     * Loads the department listing like {@link #getAllDepartments}, without joining a read in
+     * flight, for a caller that must not get a listing older than the validators it read.
+     */
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public List<DepartmentDto> getAllDepartmentsUncoalesced() {
+        return departmentMapper.summariesToDtoList(departmentRepository.findAllSummaries());
+    }
+
+    /**
+     * Returns the validators of the department listing: it reads the department names and the
+     * headcounts, so it changes with either table. Both counters are read in one statement.
+     */
+    @Coalesced
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public List<TableStamp> getAllDepartmentsStamp() {
+        return tableVersionRepository.findStamps(
+                List.of(Department.class.getSimpleName(), Employee.class.getSimpleName()));
+    }
+
+    /**
+     * Returns the validators of a department and its employees, read without loading them.
+     */
+    @Coalesced
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public VersionStamp getDepartmentStamp(Long id) {
+        return departmentRepository.findStampById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Department not found"));
+    }
+
+    /**
+     * Returns the validators of a department to answer a write with, or to re-check a read with.
+     * Not coalesced: a stamp read that started before the write committed must not answer for it.
+     */
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public VersionStamp getDepartmentStampAfterWrite(Long id) {
+        return departmentRepository.findStampById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Department not found"));
     }
 
+    /**
+     * Returns the department with its headcount and the first page of its employees.
+     */
+    @Coalesced
+    @Cacheable(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, key = "#id")
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public DepartmentDto getDepartmentById(Long id) {
-        return departmentRepository.findById(id)
+        return getDepartmentByIdUncached(id);
+    }
+
+    /**
+     * Loads the department like {@link #getDepartmentById}, bypassing the cache and in-flight
+     * reads, for a read whose cached body may predate its validators.
+     */
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public DepartmentDto getDepartmentByIdUncached(Long id) {
+        DepartmentDto dto = departmentRepository.findById(id)
                 .map(departmentMapper::toDto)
                 .orElseThrow(() -> new EntityNotFoundException("Department not found"));
+
+        CursorPageDto<EmployeeDto> firstPage = findEmployeesPage(id, 0L, ProjectConstants.DEFAULT_PAGE_SIZE);
+        dto.setEmployeeCount(employeeRepository.countByDepartmentId(id));
+        dto.setEmployees(firstPage.getItems());
+        dto.setEmployeesNextCursor(firstPage.getNextCursor());
+        return dto;
+    }
+
+    /**
+     * Returns one keyset page of the employees of a department, ordered by ID.
+     *
+     * @param id the department ID.
+     * @param cursor the cursor returned with the previous page, null for the first page.
+     * @param size the number of employees per page.
+     * @return the page and the cursor of the next one.
+     */
+    @Coalesced
+    @Transactional(readOnly = true)
+    public CursorPageDto<EmployeeDto> getDepartmentEmployees(Long id, String cursor, int size) {
+        if (!departmentRepository.existsById(id)) {
+            throw new EntityNotFoundException("Department not found");
+        }
+        return findEmployeesPage(id, CursorUtils.decode(cursor), size);
+    }
+
+    private CursorPageDto<EmployeeDto> findEmployeesPage(Long id, long afterId, int size) {
+        List<EmployeeSummary> rows = employeeRepository.findSummariesByDepartmentIdAfter(id, afterId,
+                PageRequest.of(0, size + 1));
+        return CursorUtils.toPage(rows, size, EmployeeSummary::id, employeeMapper::summariesToDtoList);
     }
 
+    @CacheEvict(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, key = "#result.id")
+    @Transactional
     public DepartmentDto createDepartment(DepartmentDto departmentDto) {
-        boolean exists = departmentRepository.findById(departmentDto.getId()).isPresent();
+        boolean exists = departmentDto.getId() != null && departmentRepository.existsById(departmentDto.getId());
         if (exists) throw new DepartmentAlreadyExistsException("Department already exists");
 
         Department newDepartment = departmentMapper.toEntity(departmentDto);
-        long randomAccNumber = 1000000000L + new Random().nextInt(900000000);
-
-        newDepartment.setId(randomAccNumber);
-        return departmentMapper.toDto(departmentRepository.save(newDepartment));
+        newDepartment.setId(null); // assigned by the department_seq generator on persist
+        Department saved = departmentRepository.save(newDepartment);
+        outboxService.append(saved, AuditAction.CREATE);
+        return departmentMapper.toDto(saved);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, key = "#id"),
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_EMPLOYEES, allEntries = true) // departmentName
+    })
+    @RetryOnConflict
+    @Transactional
     public boolean updateDepartment(Long id, DepartmentDto dto) {
         Department existing = departmentRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Department not found"));
 
-        dto.setId(id);
-        Department updated = departmentMapper.toEntity(dto);
-        departmentRepository.save(updated);
+        VersionUtils.checkVersion(existing, id, dto.getVersion());
+        departmentMapper.updateEntity(dto, existing);
+        departmentRepository.flush(); // the outbox records the new version
+        outboxService.append(existing, AuditAction.UPDATE);
         return true;
     }
 
-    public boolean deleteDepartment(Long id) {
-        departmentRepository.deleteById(id);
-        return true;
+    /**
+     * Applies the non-null fields of the given DTO to the department. Only the changed columns
+     * are written, guarded by the version column. A conflicting concurrent write is retried
+     * on fresh state unless the client pinned a version.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, key = "#id"),
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_EMPLOYEES, allEntries = true) // departmentName
+    })
+    @RetryOnConflict
+    @Transactional
+    public DepartmentDto patchDepartment(Long id, DepartmentDto dto) {
+        Department existing = departmentRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Department not found"));
+
+        VersionUtils.checkVersion(existing, id, dto.getVersion());
+        departmentMapper.patchEntity(dto, existing);
+        departmentRepository.flush();
+        outboxService.append(existing, AuditAction.UPDATE);
+        return departmentMapper.toDto(existing);
     }
 }
@@ -0,0 +1,111 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.dto.EmployeeDto;
+import com.casado.sb3.mapper.EmployeeMapper;
+import com.casado.sb3.repository.EmployeeRepository;
+import com.casado.sb3.repository.projection.EmployeeSummary;
+import com.casado.sb3.util.CsvUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Exports the whole employee directory straight from a forward-only database cursor to an output
+ * stream, one row at a time, so memory use does not depend on the number of employees.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmployeeExportService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER =
+            "id,name,departmentId,departmentName,createdAt,createdBy,updatedAt,updatedBy,version";
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeMapper employeeMapper;
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        NDJSON("ndjson", MediaType.APPLICATION_NDJSON_VALUE),
+        CSV("csv", ProjectConstants.TEXT_CSV_VALUE);
+
+        private final String extension;
+        private final String mediaType;
+
+        public static Optional<Format> fromExtension(String extension) {
+            return Arrays.stream(values())
+                    .filter(format -> format.extension.equalsIgnoreCase(extension))
+                    .findFirst();
+        }
+    }
+
+    /**
+     * Writes every employee in ID order in the given format. The output stream is flushed but
+     * not closed.
+     */
+    @Transactional(readOnly = true)
+    public void export(Format format, OutputStream out) throws IOException {
+        try (Stream<EmployeeSummary> rows = employeeRepository.streamAllSummaries()) {
+            if (format == Format.CSV) {
+                writeCsv(rows, out);
+            } else {
+                writeNdjson(rows, out);
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private void writeNdjson(Stream<EmployeeSummary> rows, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null); // the newline separates rows, not Jackson's default space
+        rows.forEach(row -> {
+            try {
+                generator.writeObject(employeeMapper.toDto(row));
+                generator.writeRaw('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        generator.close(); // flushes without closing the target
+    }
+
+    private void writeCsv(Stream<EmployeeSummary> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        rows.forEach(row -> {
+            EmployeeDto dto = employeeMapper.toDto(row);
+            try {
+                writer.write(String.join(",",
+                        CsvUtils.escape(dto.getId()),
+                        CsvUtils.escape(dto.getName()),
+                        CsvUtils.escape(dto.getDepartmentId()),
+                        CsvUtils.escape(dto.getDepartmentName()),
+                        CsvUtils.escape(dto.getCreatedAt()),
+                        CsvUtils.escape(dto.getCreatedBy()),
+                        CsvUtils.escape(dto.getUpdatedAt()),
+                        CsvUtils.escape(dto.getUpdatedBy()),
+                        CsvUtils.escape(dto.getVersion())));
+                writer.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        writer.flush();
+    }
+}
@@ -1,17 +1,43 @@
 package com.casado.sb3.service;
 
+import com.casado.sb3.audit.AuditAction;
+import com.casado.sb3.coalesce.Coalesced;
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.datasource.ReadFromPrimary;
+import com.casado.sb3.dto.CursorPageDto;
 import com.casado.sb3.dto.EmployeeDto;
 import com.casado.sb3.entity.Department;
 import com.casado.sb3.entity.Employee;
 import com.casado.sb3.mapper.EmployeeMapper;
 import com.casado.sb3.repository.DepartmentRepository;
 import com.casado.sb3.repository.EmployeeRepository;
+import com.casado.sb3.repository.TableVersionRepository;
+import com.casado.sb3.repository.projection.EmployeeSummary;
+import com.casado.sb3.repository.projection.TableStamp;
+import com.casado.sb3.repository.projection.VersionStamp;
+import com.casado.sb3.retry.RetryOnConflict;
+import com.casado.sb3.search.EmployeeNameIndex;
+import com.casado.sb3.util.CursorUtils;
+import com.casado.sb3.util.VersionUtils;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -20,18 +46,145 @@ public class EmployeeService {
     private final EmployeeRepository employeeRepository;
     private final DepartmentRepository departmentRepository;
     private final EmployeeMapper employeeMapper;
+    private final TableVersionRepository tableVersionRepository;
+    private final EntityManager entityManager;
+    private final EmployeeNameIndex employeeNameIndex;
+    private final OutboxService outboxService;
 
+    @Value("${app.search.max-results:1000}")
+    private int maxSearchResults;
+
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<EmployeeDto> getAllEmployees() {
-        var all = employeeRepository.findAll();
-        return employeeMapper.toDtoList(all);
+        var all = employeeRepository.findAllSummaries();
+        return employeeMapper.summariesToDtoList(all);
+    }
+
+    /**
+     * Returns one keyset page of employees ordered by ID, starting after the given cursor.
+     * Fetches one extra row to find out whether a next page exists.
+     *
+     * @param cursor the cursor returned with the previous page, null for the first page.
+     * @param size the number of employees per page.
+     * @return the page and the cursor of the next one.
+     */
+    @Coalesced
+    @Transactional(readOnly = true)
+    public CursorPageDto<EmployeeDto> getEmployeesPage(String cursor, int size) {
+        long afterId = CursorUtils.decode(cursor);
+        List<EmployeeSummary> rows = employeeRepository.findSummariesAfter(afterId, PageRequest.of(0, size + 1));
+        return CursorUtils.toPage(rows, size, EmployeeSummary::id, employeeMapper::summariesToDtoList);
+    }
+
+    /**
+     * Searches employees whose name has a word starting with each term of the query, using the
+     * in-memory name index. Only the matching page is read from the database, by primary key.
+     * Paging stops after {@code app.search.max-results} matches.
+     *
+     * @param query one or more search terms.
+     * @param cursor the cursor returned with the previous page, null for the first page.
+     * @param size the number of employees per page.
+     * @return the page and the cursor of the next one.
+     */
+    @Coalesced
+    @Transactional(readOnly = true)
+    public CursorPageDto<EmployeeDto> searchEmployees(String query, String cursor, int size) {
+        int offset = (int) Math.min(CursorUtils.decode(cursor), maxSearchResults);
+        int limit = Math.min(size, maxSearchResults - offset);
+        List<Long> ids = limit > 0 ? employeeNameIndex.search(query, offset, limit + 1) : List.of();
+        if (ids.isEmpty()) {
+            return new CursorPageDto<>(List.of(), null, size);
+        }
+
+        // the extra id only tells whether more employees match: never part of the page, and no
+        // next page past the cap
+        List<Long> pageIds = ids.size() > limit ? ids.subList(0, limit) : ids;
+        boolean hasNext = ids.size() > limit && offset + limit < maxSearchResults;
+        Map<Long, EmployeeSummary> byId = employeeRepository.findSummariesByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(EmployeeSummary::id, Function.identity()));
+        List<EmployeeSummary> page = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        String nextCursor = hasNext ? CursorUtils.encode(offset + limit) : null;
+        return new CursorPageDto<>(employeeMapper.summariesToDtoList(page), nextCursor, size);
     }
 
+    /**
+     * Streams every employee in ID order to the given consumer, one row at a time, without
+     * materialising the table. Each entity is detached once mapped so the persistence context
+     * does not grow with the table size.
+     *
+     * @param consumer receives each mapped employee.
+     */
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<EmployeeDto> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAllByOrderByIdAsc()) {
+            employees.forEach(employee -> {
+                consumer.accept(employeeMapper.toDto(employee));
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    /**
+     * Returns the validators of the employee listing: it embeds department names, so it changes
+     * with either table. Both counters are read in one statement.
+     */
+    @Coalesced
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public List<TableStamp> getAllEmployeesStamp() {
+        return tableVersionRepository.findStamps(
+                List.of(Department.class.getSimpleName(), Employee.class.getSimpleName()));
+    }
+
+    /**
+     * Returns the validators of an employee and its department, read without loading them.
+     */
+    @Coalesced
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public VersionStamp getEmployeeStamp(Long id) {
+        return employeeRepository.findStampById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Employee not found"));
+    }
+
+    /**
+     * Returns the validators of an employee to answer a write with, or to re-check a read with.
+     * Not coalesced: a stamp read that started before the write committed must not answer for it.
+     */
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public VersionStamp getEmployeeStampAfterWrite(Long id) {
+        return employeeRepository.findStampById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Employee not found"));
+    }
+
+    @Coalesced
+    @Cacheable(cacheNames = ProjectConstants.CACHE_EMPLOYEES, key = "#id")
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
     public EmployeeDto getEmployeeById(Long id) {
+        return getEmployeeByIdUncached(id);
+    }
+
+    /**
+     * Loads the employee like {@link #getEmployeeById}, bypassing the cache and in-flight reads,
+     * for a read whose cached body may predate its validators.
+     */
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public EmployeeDto getEmployeeByIdUncached(Long id) {
         return employeeRepository.findById(id)
                 .map(employeeMapper::toDto)
                 .orElseThrow(() -> new EntityNotFoundException("Employee not found"));
     }
 
+    @CacheEvict(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, allEntries = true) // embedded employee lists
+    @Transactional
     public EmployeeDto createEmployee(EmployeeDto employeeDto) {
 
         Optional<Employee> existing = employeeRepository.findById(employeeDto.getId());
@@ -42,30 +195,76 @@ public class EmployeeService {
 
             if (existsDepartment.isPresent()) {
                 newEmployee.setDepartment(existsDepartment.get()); // preserve existing relations if needed
-                return employeeMapper.toDto(employeeRepository.save(newEmployee));
             } else {
                 Department newDepartment = new Department();
                 newDepartment.setName(employeeDto.getDepartmentName());
                 departmentRepository.save(newDepartment);
+                outboxService.append(newDepartment, AuditAction.CREATE);
                 newEmployee.setDepartment(newDepartment); // preserve existing relations if needed
-                return employeeMapper.toDto(employeeRepository.save(newEmployee));
             }
+            Employee saved = employeeRepository.save(newEmployee);
+            outboxService.append(saved, AuditAction.CREATE);
+            return employeeMapper.toDto(saved);
         }
         throw new EntityNotFoundException("Employee already exists");
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_EMPLOYEES, key = "#id"),
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, allEntries = true)
+    })
+    @RetryOnConflict
+    @Transactional
     public EmployeeDto updateEmployee(Long id, EmployeeDto dto) {
         Employee existing = employeeRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Employee not found"));
 
-        dto.setId(id); // make sure ID matches
-        Employee updated = employeeMapper.toEntity(dto);
-        updated.setDepartment(existing.getDepartment()); // preserve existing relations if needed
+        VersionUtils.checkVersion(existing, id, dto.getVersion());
+        employeeMapper.updateEntity(dto, existing); // department is preserved
+        employeeRepository.flush();
+        outboxService.append(existing, AuditAction.UPDATE);
+        return employeeMapper.toDto(existing);
+    }
+
+    /**
+     * Applies the non-null fields of the given DTO to the employee, moving it when a different
+     * {@code departmentId} is given. Only the changed columns are written, guarded by the
+     * version column. A conflicting concurrent write is retried on fresh state unless the
+     * client pinned a version.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_EMPLOYEES, key = "#id"),
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, allEntries = true)
+    })
+    @RetryOnConflict
+    @Transactional
+    public EmployeeDto patchEmployee(Long id, EmployeeDto dto) {
+        Employee existing = employeeRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Employee not found"));
 
-        return employeeMapper.toDto(employeeRepository.save(updated));
+        VersionUtils.checkVersion(existing, id, dto.getVersion());
+        employeeMapper.patchEntity(dto, existing);
+        if (dto.getDepartmentId() != null
+                && (existing.getDepartment() == null || !dto.getDepartmentId().equals(existing.getDepartment().getId()))) {
+            existing.setDepartment(departmentRepository.findById(dto.getDepartmentId())
+                    .orElseThrow(() -> new EntityNotFoundException("Department not found")));
+        }
+        employeeRepository.flush();
+        outboxService.append(existing, AuditAction.UPDATE);
+        return employeeMapper.toDto(existing);
     }
 
-    public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_EMPLOYEES, key = "#id"),
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, allEntries = true)
+    })
+    @RetryOnConflict
+    @Transactional
+    public void deleteEmployee(Long id, Long expectedVersion) {
+        employeeRepository.findById(id).ifPresent(existing -> {
+            VersionUtils.checkVersion(existing, id, expectedVersion);
+            outboxService.append(existing, AuditAction.DELETE);
+            employeeRepository.delete(existing);
+        });
     }
 }
@@ -0,0 +1,83 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.dto.JobDto;
+import com.casado.sb3.entity.Job;
+import com.casado.sb3.job.JobContext;
+import com.casado.sb3.job.JobHandler;
+import com.casado.sb3.job.JobScheduler;
+import com.casado.sb3.job.JobStatus;
+import com.casado.sb3.mapper.JobMapper;
+import com.casado.sb3.repository.JobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Queues background jobs in the {@code job} table and reports their progress. Jobs are run by the
+ * {@link JobScheduler} once the submitting transaction commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class JobService {
+
+    private final JobRepository jobRepository;
+    private final JobMapper jobMapper;
+    private final JobScheduler jobScheduler;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Validates the parameters with the handler of the given type and queues the job.
+     *
+     * @param type the job type.
+     * @param parameters the parameters, serialized to JSON with the job.
+     * @return the queued job, to poll with {@link #getJob}.
+     */
+    @Transactional
+    public <P> JobDto submit(String type, P parameters) {
+        JobHandler<P, ?> handler = jobScheduler.handler(type);
+        Job job = new Job();
+        job.setId(UUID.randomUUID().toString());
+        job.setType(type);
+        job.setStatus(JobStatus.QUEUED);
+        job.setCreatedAt(LocalDateTime.now());
+
+        JobContext context = new JobContext(job.getId(), null, 0);
+        Object state = handler.start(parameters, context);
+        job.setParameters(toJson(parameters));
+        job.setCheckpoint(toJson(state));
+        job.setTotal(context.getTotal());
+        job.setProcessed(context.getProcessed());
+        jobRepository.save(job);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                jobScheduler.wakeUp();
+            }
+        });
+        return jobMapper.toDto(job);
+    }
+
+    @Transactional(readOnly = true)
+    public JobDto getJob(String id) {
+        return jobRepository.findById(id)
+                .map(jobMapper::toDto)
+                .orElseThrow(() -> new EntityNotFoundException("Job not found"));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.audit.AuditAction;
+import com.casado.sb3.dto.ChangeEventDto;
+import com.casado.sb3.dto.CursorPageDto;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.entity.OutboxEvent;
+import com.casado.sb3.entity.TableVersion;
+import com.casado.sb3.mapper.DepartmentMapper;
+import com.casado.sb3.mapper.EmployeeMapper;
+import com.casado.sb3.mapper.OutboxEventMapper;
+import com.casado.sb3.outbox.ChangeFeedPublisher;
+import com.casado.sb3.outbox.OutboxRelay;
+import com.casado.sb3.repository.OutboxEventRepository;
+import com.casado.sb3.repository.TableVersionRepository;
+import com.casado.sb3.repository.projection.EmployeeSummary;
+import com.casado.sb3.util.CursorUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Appends department and employee changes to the transactional outbox and serves them back as an
+ * ordered change feed. Appends join the caller's transaction, so a change and its outbox row are
+ * committed or rolled back together. Every append also marks its table changed: just before the
+ * transaction commits, the {@link TableVersion} counters of the changed tables are moved forward
+ * once each, in table name order, after the pending writes are flushed. The counter rows are so
+ * locked only from that point to the commit, and always in the same order.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TableVersionRepository tableVersionRepository;
+    private final OutboxEventMapper outboxEventMapper;
+    private final DepartmentMapper departmentMapper;
+    private final EmployeeMapper employeeMapper;
+    private final ObjectMapper objectMapper;
+    private final OutboxRelay outboxRelay;
+    private final ChangeFeedPublisher changeFeedPublisher;
+
+    @Value("${app.changes.sse-timeout:30m}")
+    private Duration sseTimeout;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Department department, AuditAction action) {
+        outboxEventRepository.save(toEvent(Department.class.getSimpleName(), department.getId(),
+                department.getVersion(), action, departmentMapper.toDto(department)));
+        markChanged(Department.class.getSimpleName());
+        wakeRelayAfterCommit();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Employee employee, AuditAction action) {
+        outboxEventRepository.save(toEvent(Employee.class.getSimpleName(), employee.getId(),
+                employee.getVersion(), action, employeeMapper.toDto(employee)));
+        markChanged(Employee.class.getSimpleName());
+        wakeRelayAfterCommit();
+    }
+
+    /**
+     * Appends one event per department, inserted in JDBC batches.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendDepartments(Collection<Department> departments, AuditAction action) {
+        outboxEventRepository.saveAll(departments.stream()
+                .map(department -> toEvent(Department.class.getSimpleName(), department.getId(),
+                        department.getVersion(), action, departmentMapper.toDto(department)))
+                .toList());
+        markChanged(Department.class.getSimpleName());
+        wakeRelayAfterCommit();
+    }
+
+    /**
+     * Appends one event per employee, inserted in JDBC batches.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(Collection<Employee> employees, AuditAction action) {
+        outboxEventRepository.saveAll(employees.stream()
+                .map(employee -> toEvent(Employee.class.getSimpleName(), employee.getId(),
+                        employee.getVersion(), action, employeeMapper.toDto(employee)))
+                .toList());
+        markChanged(Employee.class.getSimpleName());
+        wakeRelayAfterCommit();
+    }
+
+    /**
+     * Appends one event per employee changed by a bulk statement, from the state it was given.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendSummaries(Collection<EmployeeSummary> employees, AuditAction action) {
+        outboxEventRepository.saveAll(employees.stream()
+                .map(employee -> toEvent(Employee.class.getSimpleName(), employee.id(),
+                        employee.version(), action, employeeMapper.toDto(employee)))
+                .toList());
+        markChanged(Employee.class.getSimpleName());
+        wakeRelayAfterCommit();
+    }
+
+    /**
+     * Returns the changes after the given cursor, in feed order. The returned cursor is never
+     * null: it is the position to poll from next time, even when there was nothing new.
+     *
+     * @param since the cursor of the last change seen, null to read from the beginning.
+     * @param size the maximum number of changes.
+     * @return the changes and the cursor to continue from.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ChangeEventDto> getChanges(String since, int size) {
+        long afterPosition = CursorUtils.decode(since);
+        List<OutboxEvent> rows = outboxEventRepository.findByPositionGreaterThanOrderByPositionAsc(afterPosition,
+                PageRequest.of(0, size));
+        long lastPosition = rows.isEmpty() ? afterPosition : rows.get(rows.size() - 1).getPosition();
+        return new CursorPageDto<>(outboxEventMapper.toDtoList(rows), CursorUtils.encode(lastPosition), size);
+    }
+
+    /**
+     * Opens a server-sent event stream of the changes after the given cursor: the backlog is
+     * replayed from the database, then new changes are pushed as they are relayed.
+     *
+     * @param since the cursor of the last change seen, null to replay from the beginning.
+     * @param pageSize the number of changes read per backlog query.
+     * @return the emitter, completed by the client disconnecting or the timeout.
+     */
+    public SseEmitter subscribe(String since, int pageSize) {
+        long afterPosition = CursorUtils.decode(since);
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        ChangeFeedPublisher.Subscriber subscriber = changeFeedPublisher.register(emitter, afterPosition);
+        Thread.ofVirtual().name("change-feed-replay").start(() -> {
+            try {
+                String cursor = CursorUtils.encode(afterPosition);
+                CursorPageDto<ChangeEventDto> page;
+                do {
+                    page = getChanges(cursor, pageSize);
+                    subscriber.replay(page.getItems());
+                    cursor = page.getNextCursor();
+                } while (page.getItems().size() == pageSize);
+                subscriber.goLive();
+            } catch (IOException | RuntimeException ex) {
+                log.debug("Change feed replay aborted: {}", ex.getMessage());
+                emitter.completeWithError(ex);
+            }
+        });
+        return emitter;
+    }
+
+    private OutboxEvent toEvent(String entityType, Long entityId, Long version, AuditAction action, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEntityType(entityType);
+        event.setEntityId(entityId);
+        event.setEntityVersion(version);
+        event.setAction(action);
+        event.setOccurredAt(LocalDateTime.now());
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return event;
+    }
+
+    /**
+     * Records that the table changed in the current transaction, registering the counter update
+     * that runs before its commit on the first call.
+     */
+    @SuppressWarnings("unchecked")
+    private void markChanged(String table) {
+        Set<String> changed = (Set<String>) TransactionSynchronizationManager.getResource(tableVersionRepository);
+        if (changed == null) {
+            Set<String> tables = new TreeSet<>(); // one lock order for every transaction
+            TransactionSynchronizationManager.bindResource(tableVersionRepository, tables);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    return Ordered.LOWEST_PRECEDENCE; // after anything that may still write
+                }
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    tableVersionRepository.flush(); // the rows first, the counters last
+                    tables.forEach(OutboxService.this::incrementTableVersion);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(tableVersionRepository);
+                }
+            });
+            changed = tables;
+        }
+        changed.add(table);
+    }
+
+    /**
+     * Moves the counter of the table forward, creating it when the table was never changed before.
+     */
+    private void incrementTableVersion(String table) {
+        if (tableVersionRepository.increment(table) == 0) {
+            TableVersion tableVersion = new TableVersion(table);
+            tableVersion.setVersion(1);
+            tableVersionRepository.saveAndFlush(tableVersion);
+        }
+    }
+
+    private void wakeRelayAfterCommit() {
+        if (TransactionSynchronizationManager.hasResource(outboxRelay)) {
+            return; // already registered for this transaction
+        }
+        TransactionSynchronizationManager.bindResource(outboxRelay, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.wakeUp();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(outboxRelay);
+            }
+        });
+    }
+}
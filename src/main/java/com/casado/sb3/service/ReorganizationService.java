@@ -0,0 +1,286 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.audit.AuditAction;
+import com.casado.sb3.audit.AuditTrailListener;
+import com.casado.sb3.cache.CacheInvalidation;
+import com.casado.sb3.cache.SecondLevelCacheInvalidator;
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.dto.JobDto;
+import com.casado.sb3.dto.ReassignRequestDto;
+import com.casado.sb3.dto.ReassignResultDto;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.exception.InvalidReassignmentException;
+import com.casado.sb3.job.DepartmentDeletionJobHandler;
+import com.casado.sb3.repository.DepartmentRepository;
+import com.casado.sb3.repository.EmployeeRepository;
+import com.casado.sb3.repository.projection.EmployeeSummary;
+import com.casado.sb3.retry.RetryOnConflict;
+import com.casado.sb3.search.EmployeeNameIndexListener;
+import com.casado.sb3.util.VersionUtils;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Moves and deletes employees with set-based statements: one {@code UPDATE} or {@code DELETE}
+ * per batch of {@code app.bulk.update-batch-size} employees. The statements bypass the entity
+ * lifecycle, so versions, audit columns, outbox events, audit trail entries, search index
+ * entries and cache invalidations are produced here rather than by the JPA listeners.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReorganizationService {
+
+    private final EmployeeRepository employeeRepository;
+    private final DepartmentRepository departmentRepository;
+    private final OutboxService outboxService;
+    private final AuditTrailListener auditTrailListener;
+    private final EmployeeNameIndexListener employeeNameIndexListener;
+    private final SecondLevelCacheInvalidator cacheInvalidator;
+    private final AuditorAware<String> auditorAware;
+    private final JobService jobService;
+
+    @Value("${app.bulk.update-batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Moves every employee of a department to another one and deletes the emptied department.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, allEntries = true),
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_EMPLOYEES, allEntries = true)
+    })
+    @Transactional
+    public ReassignResultDto mergeDepartment(Long sourceId, Long targetId) {
+        findDepartment(sourceId);
+        return delete(sourceId, DepartmentDeletionMode.REASSIGN, targetId, null);
+    }
+
+    /**
+     * Deletes a department in one transaction. Its employees are deleted, moved to the target
+     * department or left without one, depending on the mode, batch by batch. Deleting a missing
+     * department does nothing.
+     * <p>
+     * The batches share the transaction on purpose: the {@code If-Match} version is checked
+     * against the department that is finally deleted, and a failure must not leave it half
+     * emptied behind a 409 or 412. A retried conflict therefore redoes every batch, from the
+     * rolled-back state. Departments too large for one transaction are deleted with
+     * {@link #deleteDepartmentAsync}, which commits each batch.
+     *
+     * @param id the department ID.
+     * @param mode what happens to the employees.
+     * @param targetId the department to move them to, for {@link DepartmentDeletionMode#REASSIGN}.
+     * @param expectedVersion the version sent by the client, null to skip the check.
+     * @return the number of statements issued and employees deleted or moved.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, allEntries = true),
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_EMPLOYEES, allEntries = true)
+    })
+    @RetryOnConflict
+    @Transactional
+    public ReassignResultDto deleteDepartment(Long id, DepartmentDeletionMode mode, Long targetId, Long expectedVersion) {
+        if (!departmentRepository.existsById(id)) {
+            return new ReassignResultDto();
+        }
+        return delete(id, mode, targetId, expectedVersion);
+    }
+
+    /**
+     * Queues the deletion of a department as a background job, run one batch per transaction,
+     * so a large department neither holds a request thread nor one long transaction. The
+     * employees already handled stay deleted or moved if the job fails half way.
+     *
+     * @return the job, to poll at {@code /api/jobs/{id}}.
+     */
+    public JobDto deleteDepartmentAsync(Long id, DepartmentDeletionMode mode, Long targetId, Long expectedVersion) {
+        return jobService.submit(DepartmentDeletionJobHandler.TYPE,
+                new DepartmentDeletionJobHandler.Parameters(id, mode, targetId, expectedVersion));
+    }
+
+    /**
+     * Checks that a department can be deleted in the given mode, in the caller's transaction.
+     *
+     * @return the number of employees to delete or move.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long checkDeletion(Long id, DepartmentDeletionMode mode, Long targetId, Long expectedVersion) {
+        VersionUtils.checkVersion(findDepartment(id), id, expectedVersion);
+        findTarget(id, mode, targetId);
+        return employeeRepository.countByDepartmentId(id);
+    }
+
+    /**
+     * Deletes or moves the next batch of employees of a department, or deletes the department
+     * once it is empty, in the caller's transaction. Caches are invalidated after commit.
+     *
+     * @return true once the department is gone.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean deleteDepartmentBatch(Long id, DepartmentDeletionMode mode, Long targetId, Long expectedVersion,
+                                         ReassignResultDto result) {
+        boolean done = deleteBatch(id, mode, targetId, expectedVersion, result);
+        cacheInvalidator.invalidateAfterCommit(CacheInvalidation.employee(null));
+        return done;
+    }
+
+    /**
+     * Moves the given employees to a department. Unknown employees and those already in the
+     * department are skipped.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_DEPARTMENTS, allEntries = true),
+            @CacheEvict(cacheNames = ProjectConstants.CACHE_EMPLOYEES, allEntries = true)
+    })
+    @Transactional
+    public ReassignResultDto reassignEmployees(ReassignRequestDto request) {
+        Department target = findDepartment(request.getDepartmentId());
+        List<Long> ids = request.getEmployeeIds().stream().distinct().toList();
+
+        ReassignResultDto result = new ReassignResultDto();
+        result.setRequested(ids.size());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            move(lockedSummaries(batch), target, result);
+        }
+        result.setSkipped(result.getRequested() - result.getMoved());
+
+        // Hibernate evicts its own regions for bulk statements; the service caches, the other
+        // nodes and the coalesced reads are told here
+        cacheInvalidator.invalidateAfterCommit(CacheInvalidation.employee(null));
+        return result;
+    }
+
+    private ReassignResultDto delete(Long id, DepartmentDeletionMode mode, Long targetId, Long expectedVersion) {
+        ReassignResultDto result = new ReassignResultDto();
+        result.setRequested(checkDeletion(id, mode, targetId, expectedVersion));
+        while (!deleteBatch(id, mode, targetId, expectedVersion, result)) {
+            // each batch leaves the department, so the next one starts from the top again
+        }
+        cacheInvalidator.invalidateAfterCommit(CacheInvalidation.employee(null));
+        return result;
+    }
+
+    private boolean deleteBatch(Long id, DepartmentDeletionMode mode, Long targetId, Long expectedVersion,
+                                ReassignResultDto result) {
+        if (!departmentRepository.existsById(id)) {
+            return true; // deleted in the meantime
+        }
+        if (drainBatch(id, mode, findTarget(id, mode, targetId), result) > 0) {
+            return false;
+        }
+        deleteEmptied(id, expectedVersion, result);
+        return true;
+    }
+
+    /**
+     * Deletes or moves the next batch of employees of a department.
+     *
+     * @return the number of employees handled, 0 once the department is empty.
+     */
+    private int drainBatch(Long id, DepartmentDeletionMode mode, Department target, ReassignResultDto result) {
+        List<Long> ids = employeeRepository.findIdsByDepartmentId(id, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<EmployeeSummary> batch = lockedSummaries(ids).stream()
+                .filter(employee -> id.equals(employee.departmentId()))
+                .toList();
+        if (batch.isEmpty()) {
+            return drainBatch(id, mode, target, result); // moved away between the two reads
+        }
+        ids = batch.stream().map(EmployeeSummary::id).toList();
+        if (mode != DepartmentDeletionMode.CASCADE) {
+            return move(batch, target, result);
+        }
+
+        outboxService.appendSummaries(batch, AuditAction.DELETE);
+        auditTrailListener.captureAll(batch, AuditAction.DELETE);
+        employeeNameIndexListener.removeAll(ids);
+        int deleted = employeeRepository.bulkDeleteByIdIn(ids);
+        result.setDeleted(result.getDeleted() + deleted);
+        result.setStatements(result.getStatements() + 1);
+        return deleted;
+    }
+
+    /**
+     * Moves the given employees to a department, or out of any department when the target is
+     * null, skipping those already there.
+     *
+     * @return the number of employees moved.
+     */
+    private int move(List<EmployeeSummary> employees, Department target, ReassignResultDto result) {
+        Long targetId = target == null ? null : target.getId();
+        String targetName = target == null ? null : target.getName();
+        List<EmployeeSummary> moving = employees.stream()
+                .filter(employee -> !Objects.equals(targetId, employee.departmentId()))
+                .toList();
+        if (moving.isEmpty()) {
+            return 0;
+        }
+
+        // the precision of the timestamp column, so the outbox payload matches the stored row
+        LocalDateTime updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        String updatedBy = auditorAware.getCurrentAuditor().orElse(null);
+        int moved = employeeRepository.moveToDepartment(moving.stream().map(EmployeeSummary::id).toList(),
+                target, updatedAt, updatedBy);
+        result.setMoved(result.getMoved() + moved);
+        result.setStatements(result.getStatements() + 1);
+
+        List<EmployeeSummary> movedState = moving.stream()
+                .map(employee -> new EmployeeSummary(employee.id(), employee.name(), targetId, targetName,
+                        employee.createdAt(), employee.createdBy(), updatedAt, updatedBy,
+                        employee.version() == null ? 1L : employee.version() + 1))
+                .toList();
+        outboxService.appendSummaries(movedState, AuditAction.UPDATE);
+        auditTrailListener.captureAll(movedState, AuditAction.UPDATE);
+        return moved;
+    }
+
+    /**
+     * Locks the given employees and reads their state, so no concurrent write can change it
+     * between this read and the bulk statement that the outbox and audit entries describe.
+     */
+    private List<EmployeeSummary> lockedSummaries(List<Long> ids) {
+        List<Long> locked = employeeRepository.lockByIdIn(ids);
+        return locked.isEmpty() ? List.of() : employeeRepository.findSummariesByIdIn(locked);
+    }
+
+    private void deleteEmptied(Long id, Long expectedVersion, ReassignResultDto result) {
+        Department department = findDepartment(id); // the batches cleared the persistence context
+        VersionUtils.checkVersion(department, id, expectedVersion);
+        outboxService.append(department, AuditAction.DELETE);
+        departmentRepository.delete(department);
+        result.setDepartmentsDeleted(1);
+    }
+
+    private Department findTarget(Long id, DepartmentDeletionMode mode, Long targetId) {
+        if (mode != DepartmentDeletionMode.REASSIGN) {
+            return null;
+        }
+        if (targetId == null) {
+            throw new InvalidReassignmentException("A target department is required to reassign the employees");
+        }
+        if (id.equals(targetId)) {
+            throw new InvalidReassignmentException("A department cannot be merged into itself");
+        }
+        return findDepartment(targetId);
+    }
+
+    private Department findDepartment(Long id) {
+        return departmentRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Department not found"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.casado.sb3.util;
+
+import java.util.Locale;
+
+/**
+ * Content-coding negotiation for the responses the API compresses itself. Honours the quality
+ * values of {@code Accept-Encoding}: {@code gzip;q=0} refuses gzip, and {@code *} stands for gzip
+ * only when gzip is not listed on its own.
+ */
+public class AcceptEncodingUtils {
+
+    private AcceptEncodingUtils() {
+        // restrict instantiation
+    }
+
+    /**
+     * Tells whether the client accepts a gzip-coded response.
+     *
+     * @param acceptEncoding the {@code Accept-Encoding} header, may be null.
+     * @return true when gzip, or {@code *} with gzip not listed, has a quality above 0.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = gzip == null ? quality : Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        double accepted = gzip != null ? gzip : wildcard != null ? wildcard : 0;
+        return accepted > 0;
+    }
+
+    /**
+     * Reads the {@code q} parameter of one element; 1 when absent, 0 when malformed.
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 1 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+                    && parameter.substring(1).trim().startsWith("=")) {
+                try {
+                    double quality = Double.parseDouble(parameter.substring(parameter.indexOf('=') + 1).trim());
+                    return quality >= 0 && quality <= 1 ? quality : 0;
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,64 @@
+package com.casado.sb3.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvUtils {
+
+    private CsvUtils() {
+        // restrict instantiation
+    }
+
+    /**
+     * Splits a single CSV line into its fields. Fields may be enclosed in double quotes,
+     * in which case commas are kept and doubled quotes are unescaped.
+     *
+     * @param line the CSV line, without line terminator.
+     * @return the field values.
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * Escapes a single CSV field: fields containing a comma, a double quote or a line break are
+     * enclosed in double quotes, with inner quotes doubled. Null is written as an empty field.
+     *
+     * @param value the field value, may be null.
+     * @return the field as it must appear in the CSV line.
+     */
+    public static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,68 @@
+package com.casado.sb3.util;
+
+import com.casado.sb3.dto.CursorPageDto;
+import com.casado.sb3.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+public class CursorUtils {
+
+    private CursorUtils() {
+        // restrict instantiation
+    }
+
+    /**
+     * Encodes the last seen ID of a page as an opaque, URL-safe cursor token.
+     *
+     * @param lastId the ID of the last item returned.
+     * @return the cursor token.
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor token back into the ID to seek after.
+     *
+     * @param cursor the cursor token, may be null or blank for the first page.
+     * @return the ID to seek after, 0 for the first page.
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            long lastId = Long.parseLong(raw);
+            if (lastId < 0) {
+                throw new InvalidCursorException(cursor);
+            }
+            return lastId;
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * Builds a page from the rows of a keyset query that fetched {@code size + 1} rows, using the
+     * extra row only to detect whether a next page exists.
+     *
+     * @param rows the fetched rows, at most {@code size + 1}.
+     * @param size the requested page size.
+     * @param idOf extracts the keyset ID of a row.
+     * @param mapper maps the rows of the page to their DTOs.
+     * @return the page with the cursor of the next one, or a null cursor on the last page.
+     */
+    public static <T, R> CursorPageDto<R> toPage(List<T> rows, int size, ToLongFunction<T> idOf,
+                                                 Function<List<T>, List<R>> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<T> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? encode(idOf.applyAsLong(page.get(page.size() - 1))) : null;
+        return new CursorPageDto<>(mapper.apply(page), nextCursor, size);
+    }
+}
@@ -0,0 +1,78 @@
+package com.casado.sb3.util;
+
+import com.casado.sb3.repository.projection.TableStamp;
+import com.casado.sb3.repository.projection.VersionStamp;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Builds and parses the strong entity tags of the API. A resource tag is
+ * {@code <id>-<version>} of the entity followed by the version of the rows its representation
+ * embeds, so it can be computed from a {@link VersionStamp} without loading or serializing
+ * anything. Reads and writes answer with the same tag for the same state.
+ */
+public class ETagUtils {
+
+    private static final long UNMATCHABLE_VERSION = -1L;
+
+    private ETagUtils() {
+        // restrict instantiation
+    }
+
+    /**
+     * Builds the entity tag of a resource and the rows it embeds. Writes answer with the tag of
+     * the stamp read after them, never with one built from the entity alone.
+     */
+    public static String of(VersionStamp stamp) {
+        return "\"" + stamp.id() + "-" + stamp.version() + "-" + stamp.embeddedVersion() + "\"";
+    }
+
+    /**
+     * Builds the aggregate entity tag of a collection from the counters of the tables it reads.
+     */
+    public static String of(List<TableStamp> stamps) {
+        return stamps.stream()
+                .map(stamp -> String.valueOf(stamp.version()))
+                .collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    /**
+     * Converts the last-modified time of a stamp to epoch milliseconds.
+     *
+     * @return the timestamp, or -1 when the stamp has no reliable last-modified time.
+     */
+    public static long lastModified(VersionStamp stamp) {
+        return stamp.lastModified() == null
+                ? -1L
+                : stamp.lastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Extracts the entity version from an {@code If-Match} header.
+     *
+     * @param id the ID of the targeted entity.
+     * @param ifMatch the header value, may be null.
+     * @return the expected version, null when there is no precondition ({@code *} or no header),
+     * or a version no entity can have when the tag was not issued for this entity.
+     */
+    public static Long versionFromIfMatch(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/") || tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return UNMATCHABLE_VERSION; // If-Match requires strong comparison
+        }
+        String[] parts = tag.substring(1, tag.length() - 1).split("-");
+        if (parts.length < 2 || !parts[0].equals(String.valueOf(id))) {
+            return UNMATCHABLE_VERSION;
+        }
+        try {
+            return Long.parseLong(parts[1]);
+        } catch (NumberFormatException ex) {
+            return UNMATCHABLE_VERSION;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.casado.sb3.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads UTF-8 lines from a file, starting at a byte offset, and tells the offset after the last
+ * line read, so that reading can be resumed there later without scanning the file again.
+ */
+public class OffsetLineReader implements Closeable {
+
+    private final InputStream in;
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    private long position;
+
+    private OffsetLineReader(InputStream in, long position) {
+        this.in = in;
+        this.position = position;
+    }
+
+    /**
+     * Opens the file positioned at the given offset, normally one returned by {@link #position()}.
+     */
+    public static OffsetLineReader open(Path file, long offset) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            in.skipNBytes(offset);
+        } catch (IOException ex) {
+            in.close();
+            throw ex;
+        }
+        return new OffsetLineReader(new BufferedInputStream(in), offset);
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * @return the line without its terminator, null at the end of the file.
+     */
+    public String readLine() throws IOException {
+        line.reset();
+        int b;
+        while ((b = in.read()) != -1) {
+            position++;
+            if (b == '\n') {
+                return decode();
+            }
+            line.write(b);
+        }
+        return line.size() == 0 ? null : decode();
+    }
+
+    /**
+     * The byte offset of the next line.
+     */
+    public long position() {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String decode() {
+        String value = line.toString(StandardCharsets.UTF_8);
+        return value.endsWith("\r") ? value.substring(0, value.length() - 1) : value;
+    }
+}
@@ -0,0 +1,25 @@
+package com.casado.sb3.util;
+
+import com.casado.sb3.entity.BaseEntity;
+import com.casado.sb3.exception.StaleVersionException;
+
+public class VersionUtils {
+
+    private VersionUtils() {
+        // restrict instantiation
+    }
+
+    /**
+     * Verifies that the version a client based its change on is still the current one.
+     *
+     * @param entity the managed entity about to be changed.
+     * @param id the entity ID, for the error message.
+     * @param expectedVersion the version sent by the client, null to skip the check.
+     * @throws StaleVersionException if the entity changed in the meantime.
+     */
+    public static void checkVersion(BaseEntity entity, Object id, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(entity.getVersion())) {
+            throw new StaleVersionException(entity.getClass().getSimpleName(), id, expectedVersion, entity.getVersion());
+        }
+    }
+}
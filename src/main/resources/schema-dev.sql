@@ -1,25 +1,89 @@
+DROP TABLE IF EXISTS table_version;
+DROP TABLE IF EXISTS job;
+DROP TABLE IF EXISTS outbox_event;
+DROP TABLE IF EXISTS audit_log;
 DROP TABLE IF EXISTS employee;
 DROP TABLE IF EXISTS department;
+DROP SEQUENCE IF EXISTS employee_seq;
+DROP SEQUENCE IF EXISTS department_seq;
+DROP SEQUENCE IF EXISTS outbox_seq;
+
+CREATE SEQUENCE department_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE employee_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE outbox_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE department (
-                            id BIGINT PRIMARY KEY GENERATED BY DEFAULT AS IDENTITY,
+                            id BIGINT PRIMARY KEY,
                             name VARCHAR(255) NOT NULL,
                             created_at TIMESTAMP,
                             created_by VARCHAR(255),
                             updated_at TIMESTAMP,
-                            updated_by VARCHAR(255)
+                            updated_by VARCHAR(255),
+                            version BIGINT
 );
 
 CREATE TABLE employee (
-                          id BIGINT PRIMARY KEY GENERATED BY DEFAULT AS IDENTITY,
+                          id BIGINT PRIMARY KEY,
                           name VARCHAR(255) NOT NULL,
                           department_id BIGINT,
                           created_at TIMESTAMP,
                           created_by VARCHAR(255),
                           updated_at TIMESTAMP,
                           updated_by VARCHAR(255),
+                          version BIGINT,
 
                           CONSTRAINT fk_department FOREIGN KEY (department_id)
                               REFERENCES department(id)
                               ON DELETE SET NULL
-);
\ No newline at end of file
+);
+
+CREATE TABLE audit_log (
+                           id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                           entity_type VARCHAR(32) NOT NULL,
+                           entity_id BIGINT NOT NULL,
+                           action VARCHAR(16) NOT NULL,
+                           entity_version BIGINT,
+                           changed_by VARCHAR(255),
+                           changed_at TIMESTAMP NOT NULL,
+                           details VARCHAR(4000)
+);
+
+CREATE INDEX idx_audit_log_entity ON audit_log (entity_type, entity_id, id);
+
+CREATE TABLE outbox_event (
+                              id BIGINT PRIMARY KEY,
+                              feed_position BIGINT,
+                              entity_type VARCHAR(32) NOT NULL,
+                              entity_id BIGINT NOT NULL,
+                              action VARCHAR(16) NOT NULL,
+                              entity_version BIGINT,
+                              occurred_at TIMESTAMP NOT NULL,
+                              payload VARCHAR(4000)
+);
+
+CREATE UNIQUE INDEX idx_outbox_event_position ON outbox_event (feed_position);
+
+CREATE TABLE job (
+                     id VARCHAR(36) PRIMARY KEY,
+                     type VARCHAR(64) NOT NULL,
+                     status VARCHAR(16) NOT NULL,
+                     parameters CLOB,
+                     checkpoint CLOB,
+                     result CLOB,
+                     error VARCHAR(1000),
+                     total BIGINT,
+                     processed BIGINT NOT NULL,
+                     created_at TIMESTAMP NOT NULL,
+                     started_at TIMESTAMP,
+                     updated_at TIMESTAMP,
+                     finished_at TIMESTAMP
+);
+
+CREATE INDEX idx_job_status ON job (status, created_at);
+
+CREATE TABLE table_version (
+                               name VARCHAR(32) PRIMARY KEY,
+                               version BIGINT NOT NULL
+);
+
+INSERT INTO table_version (name, version) VALUES ('Department', 0), ('Employee', 0);
@@ -0,0 +1,201 @@
+package com.casado.sb3;
+
+import com.casado.sb3.benchmark.StartupBenchmark;
+import com.casado.sb3.benchmark.StartupBenchmark.Mode;
+import com.casado.sb3.benchmark.StartupBenchmark.Started;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Starts the native executable ({@code mvn -Pnative native:compile}, dev profile, embedded H2) and
+ * calls every endpoint once, the change stream, the merges, every deletion mode and the background
+ * jobs included, then logs its startup time and RSS next to the JVM build's.
+ * Run with {@code mvn -Pnative-smoke test}.
+ */
+@Slf4j
+@Tag("native")
+class NativeSmokeTests {
+
+    private static final String BASE_URL = "http://localhost:" + StartupBenchmark.PORT;
+
+    private static final Duration JOB_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final HttpClient client = HttpClient.newHttpClient();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static Started application;
+
+    @BeforeAll
+    static void start() throws Exception {
+        assumeTrue(Mode.NATIVE.isBuilt(), "native executable not built");
+        if (Mode.JVM.isBuilt()) {
+            try (Started jvm = StartupBenchmark.start("smoke-jvm", Mode.JVM.command())) {
+                report("jvm", jvm);
+            }
+        }
+        application = StartupBenchmark.start("smoke-native", Mode.NATIVE.command());
+        report("native", application);
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (application != null) {
+            application.close();
+        }
+    }
+
+    @Test
+    void everyEndpointAnswers() throws Exception {
+        assertThat(send("GET", "/actuator/health", null, null).statusCode()).isEqualTo(200);
+
+        // departments
+        assertThat(send("POST", "/api/departments", "application/json", "{\"name\":\"Native Image\"}").statusCode())
+                .isEqualTo(201);
+        assertThat(send("POST", "/api/departments/bulk", "application/x-ndjson",
+                "{\"name\":\"Native Bulk\"}\n{\"name\":\"Native Merged\"}\n{\"name\":\"Native Reassigned\"}\n"
+                        + "{\"name\":\"Native Orphaned\"}\n").statusCode()).isEqualTo(200);
+        awaitJob(send("POST", "/api/departments/bulk?async=true", "application/x-ndjson",
+                "{\"name\":\"Native Async\"}\n"));
+        JsonNode departments = json(send("GET", "/api/departments", null, null));
+        long departmentId = idOf(departments, "Native Image");
+        long bulkDepartmentId = idOf(departments, "Native Bulk");
+        long mergedDepartmentId = idOf(departments, "Native Merged");
+        long reassignedDepartmentId = idOf(departments, "Native Reassigned");
+        long orphanedDepartmentId = idOf(departments, "Native Orphaned");
+        long asyncDepartmentId = idOf(departments, "Native Async");
+        assertThat(send("GET", "/api/departments/" + departmentId, null, null).statusCode()).isEqualTo(200);
+        assertThat(send("GET", "/api/departments/" + departmentId + "/employees?size=10", null, null).statusCode())
+                .isEqualTo(200);
+        assertThat(send("PUT", "/api/departments/" + departmentId, "application/json", "{\"name\":\"Native Renamed\"}")
+                .statusCode()).isEqualTo(200);
+        assertThat(send("PATCH", "/api/departments/" + departmentId, "application/json", "{\"name\":\"Native Patched\"}")
+                .statusCode()).isEqualTo(200);
+
+        // employees
+        JsonNode employee = json(send("POST", "/api/employees", "application/json",
+                "{\"id\":999999,\"name\":\"Native Employee\",\"departmentId\":" + departmentId
+                        + ",\"departmentName\":\"Native Patched\"}"));
+        long employeeId = employee.get("id").asLong();
+        assertThat(send("POST", "/api/employees/bulk", "text/csv",
+                "name,departmentName\nNative Row,Native Bulk\nNative Merged Row,Native Merged\n"
+                        + "Native Reassigned Row,Native Reassigned\nNative Orphaned Row,Native Orphaned\n")
+                .statusCode()).isEqualTo(200);
+        awaitJob(send("POST", "/api/employees/bulk?async=true", "text/csv",
+                "name,departmentName\nNative Async Row,Native Async\n"));
+        assertThat(send("GET", "/api/employees", null, null).statusCode()).isEqualTo(200);
+        assertThat(send("GET", "/api/employees?size=2", null, null).statusCode()).isEqualTo(200);
+        assertThat(send("GET", "/api/employees/search?q=Nat", null, null).statusCode()).isEqualTo(200);
+        assertThat(send("GET", "/api/employees/export?format=csv", null, null).statusCode()).isEqualTo(200);
+        assertThat(send("GET", "/api/employees/" + employeeId, null, null).statusCode()).isEqualTo(200);
+        assertThat(send("PUT", "/api/employees/" + employeeId, "application/json",
+                "{\"name\":\"Native Updated\",\"departmentName\":\"Native Patched\"}").statusCode()).isEqualTo(200);
+        assertThat(send("PATCH", "/api/employees/" + employeeId, "application/json",
+                "{\"name\":\"Native Patched Employee\"}").statusCode()).isEqualTo(200);
+        assertThat(json(send("POST", "/api/employees/reassign", "application/json",
+                "{\"employeeIds\":[" + employeeId + "],\"departmentId\":" + bulkDepartmentId + "}"))
+                .get("moved").asLong()).isEqualTo(1);
+        assertThat(send("GET", "/api/employees/" + employeeId + "/history", null, null).statusCode()).isEqualTo(200);
+        assertThat(send("DELETE", "/api/employees/" + employeeId, null, null).statusCode()).isEqualTo(204);
+
+        // history and change feed
+        assertThat(send("GET", "/api/departments/" + departmentId + "/history", null, null).statusCode())
+                .isEqualTo(200);
+        assertThat(send("GET", "/api/changes?size=10", null, null).statusCode()).isEqualTo(200);
+        assertThat(firstStreamedChangeId()).isNotBlank();
+
+        // merges and deletes, in every mode
+        assertThat(json(send("POST", "/api/departments/" + mergedDepartmentId + "/merge-into/" + bulkDepartmentId,
+                null, null)).get("moved").asLong()).isEqualTo(1);
+        assertThat(send("DELETE", "/api/departments/" + reassignedDepartmentId + "?mode=REASSIGN&targetId="
+                + bulkDepartmentId, null, null).statusCode()).isEqualTo(200);
+        assertThat(send("DELETE", "/api/departments/" + orphanedDepartmentId + "?mode=ORPHAN", null, null)
+                .statusCode()).isEqualTo(200);
+        awaitJob(send("DELETE", "/api/departments/" + asyncDepartmentId + "?async=true", null, null));
+        assertThat(send("DELETE", "/api/departments/" + bulkDepartmentId, null, null).statusCode()).isEqualTo(200);
+        assertThat(send("DELETE", "/api/departments/" + departmentId, null, null).statusCode()).isEqualTo(200);
+        assertThat(json(send("GET", "/api/departments", null, null)).findValuesAsText("name"))
+                .noneMatch(name -> name.startsWith("Native"));
+    }
+
+    /**
+     * Polls a queued job at {@code /api/jobs/{id}} until it is done, and checks it completed.
+     */
+    private static void awaitJob(HttpResponse<String> accepted) throws Exception {
+        assertThat(accepted.statusCode()).isEqualTo(202);
+        String location = accepted.headers().firstValue("Location").orElseThrow();
+        long deadline = System.nanoTime() + JOB_TIMEOUT.toNanos();
+        JsonNode job = objectMapper.readTree(accepted.body());
+        while (!job.get("status").asText().equals("COMPLETED") && !job.get("status").asText().equals("FAILED")
+                && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            job = json(send("GET", location, null, null));
+        }
+        assertThat(job.get("status").asText()).as("job %s: %s", location, job).isEqualTo("COMPLETED");
+    }
+
+    /**
+     * Opens {@code /api/changes/stream} from the start of the feed and returns the ID of the
+     * first event the replay sends.
+     */
+    private static String firstStreamedChangeId() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + "/api/changes/stream"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Accept", "text/event-stream")
+                .GET().build();
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        try (Stream<String> lines = response.body()) {
+            return lines.filter(line -> line.startsWith("id:"))
+                    .map(line -> line.substring("id:".length()).trim())
+                    .findFirst()
+                    .orElseThrow();
+        }
+    }
+
+    private static HttpResponse<String> send(String method, String path, String contentType, String body)
+            throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(BASE_URL + path))
+                .timeout(Duration.ofSeconds(10))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (contentType != null) {
+            request.header("Content-Type", contentType);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static JsonNode json(HttpResponse<String> response) throws Exception {
+        assertThat(response.statusCode()).isBetween(200, 201);
+        return objectMapper.readTree(response.body());
+    }
+
+    private static long idOf(JsonNode departments, String name) {
+        for (JsonNode department : departments) {
+            if (name.equals(department.get("name").asText())) {
+                return department.get("id").asLong();
+            }
+        }
+        throw new AssertionError("Department " + name + " not listed");
+    }
+
+    private static void report(String mode, Started started) {
+        assertThat(started.millis()).as("%s time-to-first-request", mode).isPositive();
+        log.info("{} time-to-first-request={} ms rss={} MB", mode, started.millis(),
+                String.format("%.1f", started.rssKilobytes() / 1024.0));
+    }
+}
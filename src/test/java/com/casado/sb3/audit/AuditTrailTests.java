@@ -0,0 +1,114 @@
+package com.casado.sb3.audit;
+
+import com.casado.sb3.dto.AuditLogDto;
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.service.AuditService;
+import com.casado.sb3.service.DepartmentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AuditTrailTests {
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuditTrailWriter auditTrailWriter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void committedChangesAreWrittenBehind() throws InterruptedException {
+        DepartmentDto created = new DepartmentDto();
+        created.setName("Audited");
+        Long id = departmentService.createDepartment(created).getId();
+        DepartmentDto patch = new DepartmentDto();
+        patch.setName("Audited Renamed");
+        departmentService.patchDepartment(id, patch);
+
+        List<AuditLogDto> history = List.of();
+        for (int attempt = 0; attempt < 50 && history.size() < 2; attempt++) {
+            Thread.sleep(100);
+            history = auditService.getHistory(Department.class.getSimpleName(), id, null, 10).getItems();
+        }
+
+        assertThat(history).extracting(AuditLogDto::getAction).containsExactly("CREATE", "UPDATE");
+        assertThat(history.get(1).getDetails()).contains("Audited Renamed");
+        assertThat(history.get(1).getChangedBy()).isEqualTo("SpringBoot3Demo_MS");
+    }
+
+    @Test
+    void overflowingEventsAreDroppedAndCounted() {
+        // a writer of its own that is never started: nothing reaches the shared audit_log
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AuditTrailWriter writer = new AuditTrailWriter(jdbcTemplate.getDataSource(), objectMapper, registry, 100, 10, 1,
+                Duration.ofMillis(200));
+        AuditEvent event = new AuditEvent("Department", -1L, AuditAction.UPDATE, 0L, "test",
+                LocalDateTime.now(), Map.of());
+
+        int rejected = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (!writer.offer(event)) {
+                rejected++;
+            }
+        }
+
+        assertThat(rejected).isEqualTo(900);
+        assertThat(registry.get("app.audit.events").tag("outcome", "dropped").counter().count()).isEqualTo(rejected);
+        assertThat(registry.get("app.audit.queue.size").gauge().value()).isEqualTo(100);
+    }
+
+    @Test
+    void anEventThatCannotBeSerializedIsDeadLetteredAlone() throws InterruptedException {
+        long entityId = -System.nanoTime();
+        double failedBefore = meterRegistry.get("app.audit.events").tag("outcome", "failed").counter().count();
+        try {
+            auditTrailWriter.offer(new AuditEvent("AuditTest", entityId, AuditAction.UPDATE, 0L, "test",
+                    LocalDateTime.now(), Map.of("value", new Poison())));
+            auditTrailWriter.offer(new AuditEvent("AuditTest", entityId, AuditAction.UPDATE, 1L, "test",
+                    LocalDateTime.now(), Map.of("value", "fine")));
+
+            List<AuditLogDto> history = List.of();
+            for (int attempt = 0; attempt < 50 && history.isEmpty(); attempt++) {
+                Thread.sleep(100);
+                history = auditService.getHistory("AuditTest", entityId, null, 10).getItems();
+            }
+
+            assertThat(history).extracting(AuditLogDto::getEntityVersion).containsExactly(1L);
+            assertThat(meterRegistry.get("app.audit.events").tag("outcome", "failed").counter().count() - failedBefore)
+                    .isEqualTo(1);
+        } finally {
+            jdbcTemplate.update("delete from audit_log where entity_type = ? and entity_id = ?", "AuditTest", entityId);
+        }
+    }
+
+    public static class Poison {
+        public String getValue() {
+            throw new IllegalStateException("not serializable");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.casado.sb3.benchmark;
+
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.repository.projection.EmployeeSummary;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds detached entity graphs and projection rows used as benchmark input.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+        // restrict instantiation
+    }
+
+    static Department department(long id, int employeeCount) {
+        Department department = new Department();
+        department.setId(id);
+        department.setName("Department " + id);
+        department.setCreatedAt(LocalDateTime.now());
+        department.setCreatedBy("benchmark");
+
+        List<Employee> employees = new ArrayList<>(employeeCount);
+        for (int i = 0; i < employeeCount; i++) {
+            Employee employee = new Employee();
+            employee.setId(id * 1_000_000L + i);
+            employee.setName("Employee " + i);
+            employee.setDepartment(department);
+            employee.setCreatedAt(LocalDateTime.now());
+            employee.setCreatedBy("benchmark");
+            employees.add(employee);
+        }
+        department.setEmployees(employees);
+        return department;
+    }
+
+    /**
+     * The rows the listings, the pages and the department details are mapped from.
+     */
+    static List<EmployeeSummary> employeeSummaries(long departmentId, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmployeeSummary> summaries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            summaries.add(new EmployeeSummary(departmentId * 1_000_000L + i, "Employee " + i, departmentId,
+                    "Department " + departmentId, now, "benchmark", null, null, 0L));
+        }
+        return summaries;
+    }
+}
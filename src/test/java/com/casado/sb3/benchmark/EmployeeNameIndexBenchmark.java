@@ -0,0 +1,61 @@
+package com.casado.sb3.benchmark;
+
+import com.casado.sb3.search.EmployeeNameIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prefix lookups against an {@link EmployeeNameIndex} holding a million synthetic names.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EmployeeNameIndexBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "an", "to", "ni", "ca", "sa", "do", "al", "ice", "bo", "jo", "hn", "son",
+            "cla", "ra", "ma", "ri", "co", "sta", "fa", "bi", "sch", "mi", "dt", "el"
+    };
+
+    @Param({"1000000"})
+    private int employees;
+
+    @Param({"ma", "sch", "alice"})
+    private String prefix;
+
+    private EmployeeNameIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new EmployeeNameIndex();
+        SplittableRandom random = new SplittableRandom(42);
+        for (long id = 1; id <= employees; id++) {
+            index.index(id, word(random) + " " + word(random));
+        }
+    }
+
+    @Benchmark
+    public List<Long> firstPage() {
+        return index.search(prefix, 0, 20);
+    }
+
+    @Benchmark
+    public List<Long> twoTermQuery() {
+        return index.search(prefix + " a", 0, 20);
+    }
+
+    private static String word(SplittableRandom random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+}
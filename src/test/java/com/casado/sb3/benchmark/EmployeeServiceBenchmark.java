@@ -0,0 +1,81 @@
+package com.casado.sb3.benchmark;
+
+import com.casado.sb3.SpringBoot3DemoApp;
+import com.casado.sb3.dto.EmployeeDto;
+import com.casado.sb3.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link EmployeeService#getAllEmployees()} against an in-memory H2 seeded over JDBC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EmployeeServiceBenchmark {
+
+    private static final int DEPARTMENTS = 20;
+    private static final int SEED_BATCH = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringBoot3DemoApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=benchmark",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark-" + rows,
+                        "--spring.sql.init.mode=never",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        employeeService = context.getBean(EmployeeService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<EmployeeDto> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> departments = new ArrayList<>(DEPARTMENTS);
+        for (long id = 1; id <= DEPARTMENTS; id++) {
+            departments.add(new Object[]{id, "Department " + id, now, "benchmark"});
+        }
+        jdbcTemplate.batchUpdate("insert into department (id, name, created_at, created_by) values (?, ?, ?, ?)",
+                departments);
+
+        List<Object[]> employees = new ArrayList<>(SEED_BATCH);
+        for (long id = 1; id <= rows; id++) {
+            employees.add(new Object[]{id, "Employee " + id, id % DEPARTMENTS + 1, now, "benchmark"});
+            if (employees.size() == SEED_BATCH || id == rows) {
+                jdbcTemplate.batchUpdate(
+                        "insert into employee (id, name, department_id, created_at, created_by) values (?, ?, ?, ?, ?)",
+                        employees);
+                employees.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.casado.sb3.benchmark;
+
+import com.casado.sb3.util.CursorUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Closed-loop HTTP load generator used to compare the platform-thread and virtual-thread
+ * request execution modes. Start the application once per mode, e.g.
+ * <pre>
+ *   java -jar target/SpringBoot3Demo-0.0.1-SNAPSHOT.jar --spring.profiles.active=dev
+ *   java -jar target/SpringBoot3Demo-0.0.1-SNAPSHOT.jar --spring.profiles.active=dev,virtual
+ * </pre>
+ * and run this class with {@code <baseUrl> <concurrency> <seconds> [seedRows]}; it reports throughput
+ * and p50/p99/max latency per endpoint.
+ * <p>
+ * The point is to compare blocking JDBC work, so it avoids everything that answers from memory: the
+ * by-id reads are cached and identical concurrent reads are coalesced. It first bulk-imports
+ * {@code seedRows} employees (10000 by default), then requests keyset pages at random cursors and name
+ * searches for random prefixes, each of which queries the database. Start the application with
+ * {@code --app.singleflight.enabled=false} so that the occasional identical request is not coalesced.
+ */
+public class HttpLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        int seedRows = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        seed(client, baseUrl, seedRows);
+
+        Supplier<URI> page = () -> URI.create(baseUrl + "/api/employees?size=20&cursor="
+                + CursorUtils.encode(ThreadLocalRandom.current().nextLong(seedRows)));
+        Supplier<URI> search = () -> URI.create(baseUrl + "/api/employees/search?size=20&q="
+                + ThreadLocalRandom.current().nextInt(100, 1000));
+        report("/api/employees?size&cursor", concurrency, run(client, page, concurrency, duration), duration);
+        report("/api/employees/search", concurrency, run(client, search, concurrency, duration), duration);
+    }
+
+    private static void seed(HttpClient client, String baseUrl, int rows) throws Exception {
+        String body = IntStream.range(0, rows)
+                .mapToObj(i -> "{\"name\":\"Load Employee " + i + "\",\"departmentName\":\"Load Testing\"}")
+                .collect(Collectors.joining("\n"));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/employees/bulk"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        System.out.printf("seeded %d rows: %d %s%n", rows, response.statusCode(), response.body());
+    }
+
+    private static long[] run(HttpClient client, Supplier<URI> uris, int concurrency, Duration duration)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+
+        List<Future<long[]>> workers = new ArrayList<>(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(uris.get()).GET().build();
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        long elapsed = System.nanoTime() - start;
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = elapsed;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+            long[] all = new long[0];
+            for (Future<long[]> worker : workers) {
+                long[] samples = worker.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + samples.length);
+                System.arraycopy(samples, 0, all, offset, samples.length);
+            }
+            if (errors.get() > 0) {
+                System.out.printf("%d error responses%n", errors.get());
+            }
+            return all;
+        }
+    }
+
+    private static void report(String path, int concurrency, long[] latencies, Duration duration) {
+        Arrays.sort(latencies);
+        System.out.printf("%-28s concurrency=%d requests=%d throughput=%.0f req/s p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                path, concurrency, latencies.length, latencies.length / (double) duration.toSeconds(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,56 @@
+package com.casado.sb3.benchmark;
+
+import com.casado.sb3.id.ConcurrentPooledLoOptimizer;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.PooledLoOptimizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention benchmark for id allocation: all threads draw ids from one optimizer backed by an
+ * in-memory sequence, comparing Hibernate's synchronized pooled-lo optimizer with the concurrent one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class IdOptimizerBenchmark {
+
+    private static final int INCREMENT_SIZE = 50;
+
+    private final AtomicLong sequence = new AtomicLong(1);
+
+    private final AccessCallback callback = new AccessCallback() {
+        @Override
+        public IntegralDataTypeHolder getNextValue() {
+            return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class)
+                    .initialize(sequence.getAndAdd(INCREMENT_SIZE));
+        }
+
+        @Override
+        public String getTenantIdentifier() {
+            return null;
+        }
+    };
+
+    private final Optimizer concurrent = new ConcurrentPooledLoOptimizer(Long.class, INCREMENT_SIZE);
+    private final Optimizer synchronizedPooledLo = new PooledLoOptimizer(Long.class, INCREMENT_SIZE);
+
+    @Benchmark
+    public Object concurrentPooledLo() {
+        return concurrent.generate(callback);
+    }
+
+    @Benchmark
+    public Object synchronizedPooledLo() {
+        return synchronizedPooledLo.generate(callback);
+    }
+}
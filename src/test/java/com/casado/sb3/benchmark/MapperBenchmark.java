@@ -0,0 +1,78 @@
+package com.casado.sb3.benchmark;
+
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.dto.EmployeeDto;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.mapper.DepartmentMapper;
+import com.casado.sb3.mapper.EmployeeMapper;
+import com.casado.sb3.repository.projection.EmployeeSummary;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the MapStruct-generated mappers, wired by a plain Spring context over the mapper package,
+ * on the inputs the services actually map: employee projection rows for the listings and pages, and a
+ * department without its employee collection plus one page of rows for the department details.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int rows;
+
+    private AnnotationConfigApplicationContext context;
+    private EmployeeMapper employeeMapper;
+    private DepartmentMapper departmentMapper;
+    private Department department;
+    private Employee employee;
+    private List<EmployeeSummary> summaries;
+    private List<EmployeeSummary> firstPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext("com.casado.sb3.mapper");
+        employeeMapper = context.getBean(EmployeeMapper.class);
+        departmentMapper = context.getBean(DepartmentMapper.class);
+        department = BenchmarkData.department(1L, 1);
+        employee = department.getEmployees().get(0);
+        summaries = BenchmarkData.employeeSummaries(1L, rows);
+        firstPage = summaries.subList(0, Math.min(rows, ProjectConstants.DEFAULT_PAGE_SIZE));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public EmployeeDto employeeToDto() {
+        return employeeMapper.toDto(employee);
+    }
+
+    @Benchmark
+    public List<EmployeeDto> employeeSummariesToDtoList() {
+        return employeeMapper.summariesToDtoList(summaries);
+    }
+
+    /**
+     * The department details as {@code DepartmentService.getDepartmentById} builds them; independent
+     * of {@code rows} beyond the first page, which is the point of paging the embedded employees.
+     */
+    @Benchmark
+    public DepartmentDto departmentDetailsToDto() {
+        DepartmentDto dto = departmentMapper.toDto(department);
+        dto.setEmployeeCount((long) rows);
+        dto.setEmployees(employeeMapper.summariesToDtoList(firstPage));
+        return dto;
+    }
+}
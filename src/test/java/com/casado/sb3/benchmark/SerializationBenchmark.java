@@ -0,0 +1,66 @@
+package com.casado.sb3.benchmark;
+
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.dto.EmployeeDto;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.mapper.DepartmentMapper;
+import com.casado.sb3.mapper.EmployeeMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks Jackson serialization of the response DTOs with the same defaults Spring Boot applies:
+ * an employee, a listing of employees and the department details with their first page of employees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int employees;
+
+    private ObjectMapper objectMapper;
+    private EmployeeDto employee;
+    private List<EmployeeDto> listing;
+    private DepartmentDto department;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext("com.casado.sb3.mapper")) {
+            Department entity = BenchmarkData.department(1L, 1);
+            listing = context.getBean(EmployeeMapper.class)
+                    .summariesToDtoList(BenchmarkData.employeeSummaries(1L, employees));
+            department = context.getBean(DepartmentMapper.class).toDto(entity);
+            department.setEmployeeCount((long) employees);
+            department.setEmployees(listing.subList(0, Math.min(employees, ProjectConstants.DEFAULT_PAGE_SIZE)));
+        }
+        employee = listing.get(0);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployeeListing() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(listing);
+    }
+
+    @Benchmark
+    public byte[] serializeDepartment() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(department);
+    }
+}
@@ -0,0 +1,99 @@
+package com.casado.sb3.benchmark;
+
+import com.casado.sb3.SpringBoot3DemoApp;
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.service.DepartmentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thundering herd on {@link DepartmentService#getAllDepartments()}: 64 threads read the same
+ * uncached listing, with and without single-flight coalescing. Besides the throughput, the
+ * trial reports the SQL statements issued per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SingleFlightBenchmark {
+
+    private static final int DEPARTMENTS = 20;
+    private static final int EMPLOYEES = 100_000;
+    private static final int SEED_BATCH = 10_000;
+
+    @Param({"true", "false"})
+    private boolean coalesce;
+
+    private ConfigurableApplicationContext context;
+    private DepartmentService departmentService;
+    private Statistics statistics;
+    private final LongAdder calls = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringBoot3DemoApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=benchmark",
+                        "--spring.datasource.url=jdbc:h2:mem:singleflight-" + coalesce,
+                        "--spring.sql.init.mode=never",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.datasource.hikari.maximum-pool-size=64",
+                        "--app.singleflight.enabled=" + coalesce,
+                        "--logging.level.root=WARN");
+        seed(context.getBean(JdbcTemplate.class));
+        departmentService = context.getBean(DepartmentService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%ncoalesce=%s: %d calls, %d statements, %.3f statements per call%n",
+                coalesce, calls.sum(), statistics.getPrepareStatementCount(),
+                (double) statistics.getPrepareStatementCount() / Math.max(1, calls.sum()));
+        context.close();
+    }
+
+    @Benchmark
+    public List<DepartmentDto> getAllDepartments() {
+        calls.increment();
+        return departmentService.getAllDepartments();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> departments = new ArrayList<>(DEPARTMENTS);
+        for (long id = 1; id <= DEPARTMENTS; id++) {
+            departments.add(new Object[]{id, "Department " + id, now, "benchmark"});
+        }
+        jdbcTemplate.batchUpdate("insert into department (id, name, created_at, created_by) values (?, ?, ?, ?)",
+                departments);
+
+        List<Object[]> employees = new ArrayList<>(SEED_BATCH);
+        for (long id = 1; id <= EMPLOYEES; id++) {
+            employees.add(new Object[]{id, "Employee " + id, id % DEPARTMENTS + 1, now, "benchmark"});
+            if (employees.size() == SEED_BATCH || id == EMPLOYEES) {
+                jdbcTemplate.batchUpdate(
+                        "insert into employee (id, name, department_id, created_at, created_by) values (?, ?, ?, ?, ?)",
+                        employees);
+                employees.clear();
+            }
+        }
+    }
+}
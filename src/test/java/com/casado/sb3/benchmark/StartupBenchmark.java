@@ -0,0 +1,187 @@
+package com.casado.sb3.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures time-to-first-request and resident memory of the packaged application, started as a
+ * separate process once per run. Build with {@code mvn -Pprod package -DskipTests}, then run
+ * this class with {@code <runs> <mode>...}, modes being
+ * <ul>
+ *   <li>{@code jvm}: the plain jar with the default {@code dev} profile,</li>
+ *   <li>{@code prod}: the extracted jar with the {@code prod} profile, AOT initialization and the
+ *   CDS archive, against a file database whose schema is created beforehand by a {@code dev} run,</li>
+ *   <li>{@code native}: the native executable of {@code mvn -Pnative native:compile}.</li>
+ * </ul>
+ * Time-to-first-request runs from process start to the first successful
+ * {@code GET /api/departments}; RSS is read from {@code /proc} right after it (Linux only).
+ */
+public class StartupBenchmark {
+
+    public static final int PORT = 18081;
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    private static final Path TARGET = Path.of("target");
+    private static final String JAR = "SpringBoot3Demo-0.0.1-SNAPSHOT.jar";
+    private static final String PROD_DATABASE = "jdbc:h2:file:./target/startup/db";
+
+    public enum Mode {
+        JVM {
+            @Override
+            public List<String> command() {
+                return List.of("java", "-jar", TARGET.resolve(JAR).toString(),
+                        "--server.port=" + PORT);
+            }
+        },
+        PROD {
+            @Override
+            public List<String> command() {
+                Path application = TARGET.resolve("application");
+                return List.of("java", "-XX:SharedArchiveFile=" + application.resolve("application.jsa"),
+                        "-Dspring.aot.enabled=true", "-jar", application.resolve(JAR).toString(),
+                        "--spring.profiles.active=prod", "--spring.datasource.url=" + PROD_DATABASE,
+                        "--server.port=" + PORT);
+            }
+
+            @Override
+            void prepare() throws Exception {
+                // the prod profile neither creates nor seeds the schema
+                start("schema", List.of("java", "-jar", TARGET.resolve(JAR).toString(),
+                        "--spring.datasource.url=" + PROD_DATABASE, "--server.port=" + PORT)).close();
+            }
+        },
+        NATIVE {
+            @Override
+            public List<String> command() {
+                return List.of(TARGET.resolve("SpringBoot3Demo").toAbsolutePath().toString(),
+                        "--server.port=" + PORT);
+            }
+
+            @Override
+            public boolean isBuilt() {
+                return Files.isExecutable(Path.of(command().get(0)));
+            }
+        };
+
+        public abstract List<String> command();
+
+        void prepare() throws Exception {
+        }
+
+        /**
+         * Whether the build output this mode runs exists.
+         */
+        public boolean isBuilt() {
+            return Files.exists(Path.of(command().get(command().indexOf("-jar") + 1)));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        List<Mode> modes = args.length > 1
+                ? Arrays.stream(args, 1, args.length).map(mode -> Mode.valueOf(mode.toUpperCase())).toList()
+                : Arrays.stream(Mode.values()).filter(Mode::isBuilt).toList();
+
+        for (Mode mode : modes) {
+            mode.prepare();
+            long[] startupMillis = new long[runs];
+            long[] rssKilobytes = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                try (Started started = start(mode.name().toLowerCase() + "-" + run, mode.command())) {
+                    startupMillis[run] = started.millis();
+                    rssKilobytes[run] = started.rssKilobytes();
+                }
+            }
+            Arrays.sort(startupMillis);
+            Arrays.sort(rssKilobytes);
+            System.out.printf("%-6s runs=%d time-to-first-request median=%d ms min=%d ms rss median=%.1f MB%n",
+                    mode.name().toLowerCase(), runs, startupMillis[runs / 2], startupMillis[0],
+                    rssKilobytes[runs / 2] / 1024.0);
+        }
+    }
+
+    public static Started start(String name, List<String> command) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + PORT + "/api/departments"))
+                .GET().build();
+        Files.createDirectories(TARGET.resolve("startup"));
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(TARGET.resolve("startup").resolve(name + ".log").toFile())
+                .start();
+        Started started = new Started(process, start);
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(name + " exited with " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        started.ready();
+                        return started;
+                    }
+                } catch (IOException ex) {
+                    // not listening yet
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException(name + " did not answer within " + TIMEOUT);
+        } catch (Exception ex) {
+            started.close();
+            throw ex;
+        }
+    }
+
+    public static final class Started implements AutoCloseable {
+
+        private final Process process;
+        private final long startNanos;
+        private long millis;
+        private long rssKilobytes = -1;
+
+        Started(Process process, long startNanos) {
+            this.process = process;
+            this.startNanos = startNanos;
+        }
+
+        void ready() {
+            millis = (System.nanoTime() - startNanos) / 1_000_000;
+            rssKilobytes = readRssKilobytes(process.pid());
+        }
+
+        public long millis() {
+            return millis;
+        }
+
+        public long rssKilobytes() {
+            return rssKilobytes;
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            process.destroy();
+            process.waitFor();
+        }
+
+        private static long readRssKilobytes(long pid) {
+            try {
+                return Files.readAllLines(Path.of("/proc", Long.toString(pid), "status")).stream()
+                        .filter(line -> line.startsWith("VmRSS:"))
+                        .map(line -> line.replaceAll("\\D", ""))
+                        .mapToLong(Long::parseLong)
+                        .findFirst()
+                        .orElse(-1);
+            } catch (IOException ex) {
+                return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.casado.sb3.coalesce;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+    private static final int CALLERS = 32;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+
+    @Test
+    void concurrentIdenticalCallsShareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        return singleFlight.execute("load", List.of(1L), () -> {
+                            executions.incrementAndGet();
+                            release.await();
+                            return "department";
+                        });
+                    } catch (Throwable ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }));
+            }
+            while (followers() < CALLERS - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            for (Future<Object> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("department");
+            }
+        }
+
+        assertThat(executions).hasValue(1);
+        assertThat(meterRegistry.get("app.singleflight.calls").tag("role", "leader").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void differentArgumentsAndGenerationsRunSeparately() throws Throwable {
+        AtomicInteger executions = new AtomicInteger();
+        singleFlight.execute("load", List.of(1L), () -> singleFlight.execute("load", List.of(2L), () -> {
+            singleFlight.newGeneration();
+            return singleFlight.execute("load", List.of(1L), executions::incrementAndGet);
+        }));
+
+        assertThat(executions).hasValue(1);
+        assertThat(followers()).isZero();
+    }
+
+    @Test
+    void exceptionsReachTheCallerAndAreNotRemembered() throws Throwable {
+        assertThatThrownBy(() -> singleFlight.execute("load", List.of(1L), () -> {
+            throw new IllegalArgumentException("not found");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(singleFlight.execute("load", List.of(1L), () -> "found")).isEqualTo("found");
+    }
+
+    @Test
+    void everyCallerOfASharedResultGetsItsOwnCopy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Object>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    try {
+                        return singleFlight.execute("load", List.of(1L), () -> {
+                            release.await();
+                            return new ArrayList<>(List.of("department"));
+                        }, shared -> new ArrayList<>((List<?>) shared));
+                    } catch (Throwable ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                }));
+            }
+            while (followers() < CALLERS - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            List<Object> distinct = new ArrayList<>();
+            for (Future<Object> result : results) {
+                Object list = result.get(5, TimeUnit.SECONDS);
+                assertThat(list).isEqualTo(List.of("department"));
+                assertThat(distinct).noneMatch(other -> other == list);
+                distinct.add(list);
+            }
+        }
+    }
+
+    @Test
+    void anUnsharedResultIsNotCopied() throws Throwable {
+        List<String> loaded = new ArrayList<>(List.of("department"));
+
+        assertThat(singleFlight.execute("load", List.of(1L), () -> loaded, shared -> {
+            throw new AssertionError("copied without followers");
+        })).isSameAs(loaded);
+    }
+
+    private double followers() {
+        var counter = meterRegistry.find("app.singleflight.calls").tag("role", "follower").counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,135 @@
+package com.casado.sb3.config;
+
+import com.casado.sb3.datasource.ReplicaLagMonitor;
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.dto.EmployeeDto;
+import com.casado.sb3.service.DepartmentService;
+import com.casado.sb3.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the primary and the replica as two separate H2 databases; replication is simulated by
+ * copying the primary into the replica with {@code SCRIPT}, so every later write is "not yet
+ * replicated" and shows which pool served a read.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "app.datasource.replica.hikari.jdbc-url=jdbc:h2:mem:routing-replica",
+        "app.datasource.replica.hikari.read-only=false",
+        "app.datasource.replica.max-lag=1m",
+        "app.datasource.replica.probe-interval=1h"
+})
+@ActiveProfiles({"dev", "replica"})
+class ReplicaRoutingTests {
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void replicate() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        List<String> script = primary.queryForList("SCRIPT", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        script.forEach(replica::execute);
+        replicaLagMonitor.probe();
+    }
+
+    @AfterEach
+    void restore() {
+        primary.update("update department set name = 'Engineering' where name in ('Not Replicated', 'Renamed')");
+    }
+
+    @Test
+    void readOnlyTransactionsAreServedByTheReplica() {
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        primary.update("update department set name = 'Not Replicated' where name = 'Engineering'");
+
+        assertThat(names()).contains("Engineering").doesNotContain("Not Replicated");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        primary.update("update department set name = 'Not Replicated' where name = 'Engineering'");
+        replica.update("update replica_heartbeat set beat_at = ? where id = 1",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)));
+        replicaLagMonitor.probe();
+
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThat(names()).contains("Not Replicated").doesNotContain("Engineering");
+    }
+
+    @Test
+    void cachedLoadsAndETagValidatorsReadThePrimary() {
+        Long id = primary.queryForObject("select id from department where name = 'Engineering'", Long.class);
+        DepartmentDto rename = new DepartmentDto();
+        rename.setName("Renamed");
+        departmentService.patchDepartment(id, rename);
+        Long version = primary.queryForObject("select version from department where id = ?", Long.class, id);
+
+        // the replica is still usable and has not seen the write
+        assertThat(replicaLagMonitor.isReplicaUsable()).isTrue();
+        assertThat(names()).contains("Engineering").doesNotContain("Renamed");
+
+        assertThat(departmentService.getDepartmentStamp(id).version()).isEqualTo(version);
+        assertThat(departmentService.getDepartmentById(id).getName()).isEqualTo("Renamed");
+        assertThat(departmentService.getAllDepartments()).extracting(DepartmentDto::getName).contains("Renamed");
+        assertThat(employeeService.getEmployeeById(employeeId(id)).getDepartmentName()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        DepartmentDto created = new DepartmentDto();
+        created.setName("Written");
+        departmentService.createDepartment(created);
+
+        assertThat(primary.queryForObject("select count(*) from department where name = 'Written'", Long.class))
+                .isEqualTo(1L);
+        assertThat(replica.queryForObject("select count(*) from department where name = 'Written'", Long.class))
+                .isZero();
+    }
+
+    /**
+     * Department names as seen by a read that is neither cached nor validated, served by the replica.
+     */
+    private List<String> names() {
+        return employeeService.getEmployeesPage(null, 100).getItems().stream()
+                .map(EmployeeDto::getDepartmentName)
+                .toList();
+    }
+
+    private Long employeeId(Long departmentId) {
+        return primary.queryForObject("select min(id) from employee where department_id = ?", Long.class, departmentId);
+    }
+}
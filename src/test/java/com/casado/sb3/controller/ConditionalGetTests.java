@@ -0,0 +1,186 @@
+package com.casado.sb3.controller;
+
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.repository.DepartmentRepository;
+import com.casado.sb3.repository.EmployeeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class ConditionalGetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void currentETagIsAnsweredWith304FromTheStampQueryAlone() throws Exception {
+        Long id = departmentRepository.findByName("Engineering").orElseThrow().getId();
+        String eTag = mockMvc.perform(get("/api/departments/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotBlank();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(get("/api/departments/{id}", id).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void employeeChangeInvalidatesDepartmentAndCollectionETags() throws Exception {
+        Long departmentId = departmentRepository.findByName("Engineering").orElseThrow().getId();
+        Long employeeId = employeeRepository.findByDepartmentId(departmentId).get(0).getId();
+        String departmentTag = mockMvc.perform(get("/api/departments/{id}", departmentId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String listingTag = mockMvc.perform(get("/api/departments"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String employeeTag = mockMvc.perform(get("/api/employees/{id}", employeeId))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                        .header(HttpHeaders.IF_MATCH, employeeTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Renamed Engineer\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/departments/{id}", departmentId).header(HttpHeaders.IF_NONE_MATCH, departmentTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/departments").header(HttpHeaders.IF_NONE_MATCH, listingTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                        .header(HttpHeaders.IF_MATCH, employeeTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Lost Update\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void writeAnswersWithTheTagOfTheNextRead() throws Exception {
+        Long employeeId = employeeRepository.findAll().get(0).getId();
+        String readTag = mockMvc.perform(get("/api/employees/{id}", employeeId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String writeTag = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                        .header(HttpHeaders.IF_MATCH, readTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Tagged Engineer\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/employees/{id}", employeeId).header(HttpHeaders.IF_NONE_MATCH, writeTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                        .header(HttpHeaders.IF_MATCH, writeTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Tagged Again\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void collectionTagChangesWhenADeleteAndAnInsertKeepTheRowCount() throws Exception {
+        String listingTag = mockMvc.perform(get("/api/departments"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        long employees = employeeRepository.count();
+
+        mockMvc.perform(delete("/api/employees/{id}", employeeRepository.findAll().get(0).getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/employees/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Replacement Hire\",\"departmentName\":\"Engineering\"}\n"))
+                .andExpect(status().isOk());
+
+        assertThat(employeeRepository.count()).isEqualTo(employees);
+        mockMvc.perform(get("/api/departments").header(HttpHeaders.IF_NONE_MATCH, listingTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void departmentTagChangesWhenAnEmployeeIsReplaced() throws Exception {
+        Long departmentId = departmentRepository.findByName("Engineering").orElseThrow().getId();
+        String departmentTag = mockMvc.perform(get("/api/departments/{id}", departmentId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(delete("/api/employees/{id}", employeeRepository.findByDepartmentId(departmentId).get(0).getId()))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/employees/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"name\":\"Replacement Engineer\",\"departmentName\":\"Engineering\"}\n"))
+                .andExpect(status().isOk());
+
+        // same headcount, and possibly the same sum of IDs and versions: the tag must move anyway
+        mockMvc.perform(get("/api/departments/{id}", departmentId).header(HttpHeaders.IF_NONE_MATCH, departmentTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void departmentPutAnswersWithTheTagOfTheNextRead() throws Exception {
+        Department department = new Department();
+        department.setName("Put Tagged");
+        Long departmentId = departmentRepository.save(department).getId();
+        String readTag = mockMvc.perform(get("/api/departments/{id}", departmentId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String writeTag = mockMvc.perform(put("/api/departments/{id}", departmentId)
+                        .header(HttpHeaders.IF_MATCH, readTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Put Retagged\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(writeTag).isNotBlank().isNotEqualTo(readTag);
+        mockMvc.perform(get("/api/departments/{id}", departmentId).header(HttpHeaders.IF_NONE_MATCH, writeTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void readNeverTagsACachedBodyOlderThanTheStamp() throws Exception {
+        Department department = new Department();
+        department.setName("Cached Before");
+        Long departmentId = departmentRepository.save(department).getId();
+        String cachedTag = mockMvc.perform(get("/api/departments/{id}", departmentId))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // a write that does not evict the cached body
+        Department renamed = departmentRepository.findById(departmentId).orElseThrow();
+        renamed.setName("Cached After");
+        departmentRepository.save(renamed);
+
+        mockMvc.perform(get("/api/departments/{id}", departmentId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(cachedTag)))
+                .andExpect(jsonPath("$.name").value("Cached After"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.casado.sb3.controller;
+
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.service.DepartmentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DepartmentListingResponseTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void listingIsSerializedOnceAndServedPlainOrGzipped() throws Exception {
+        byte[] json = mockMvc.perform(get("/api/departments"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        double misses = requests("miss");
+
+        byte[] again = mockMvc.perform(get("/api/departments"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] gzipped = mockMvc.perform(get("/api/departments").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(again).isEqualTo(json);
+        assertThat(gunzip(gzipped)).isEqualTo(json);
+        assertThat(requests("miss")).isEqualTo(misses);
+    }
+
+    @Test
+    void listingIsNotGzippedWhenGzipHasZeroQuality() throws Exception {
+        mockMvc.perform(get("/api/departments").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void writesAreVisibleInTheNextListing() throws Exception {
+        mockMvc.perform(get("/api/departments")).andExpect(status().isOk());
+
+        DepartmentDto created = new DepartmentDto();
+        created.setName("Listed Afterwards");
+        departmentService.createDepartment(created);
+
+        String listing = mockMvc.perform(get("/api/departments"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(listing).contains("Listed Afterwards");
+    }
+
+    private double requests(String result) {
+        var counter = meterRegistry.find("app.response.cache.requests")
+                .tag("name", ProjectConstants.RESPONSE_DEPARTMENT_LISTING)
+                .tag("result", result)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.casado.sb3.controller;
+
+import com.casado.sb3.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports a million employees over HTTP. Runs with {@code mvn -Plarge-tests test}, which caps the
+ * heap well below what the directory would take as a list of DTOs, so any buffering of the
+ * export fails the test with an {@code OutOfMemoryError}. The data lives in a file-backed H2
+ * database with lazy query execution, so the rows are not held in the heap either.
+ */
+@Tag("large")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/h2/export-large;LAZY_QUERY_EXECUTION=TRUE;CACHE_SIZE=16384",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=false"
+})
+class EmployeeExportLargeTests {
+
+    private static final int ROWS = 1_000_000;
+    private static final long FIRST_ID = 10_000_000L;
+    private static final int SEED_BATCH = 10_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeAll
+    void seed() {
+        Long departmentId = jdbcTemplate.queryForObject("select min(id) from department", Long.class);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH);
+        for (long id = FIRST_ID; id < FIRST_ID + ROWS; id++) {
+            batch.add(new Object[]{id, "Employee " + id, departmentId, now, "export-test"});
+            if (batch.size() == SEED_BATCH) {
+                jdbcTemplate.batchUpdate("insert into employee (id, name, department_id, created_at, created_by, version) "
+                        + "values (?, ?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @Test
+    void exportsEveryRowAsNdjson() throws Exception {
+        assertThat(countLines("ndjson", false)).isEqualTo(employeeRepository.count());
+    }
+
+    @Test
+    void exportsEveryRowAsGzippedCsv() throws Exception {
+        assertThat(countLines("csv", true)).isEqualTo(employeeRepository.count() + 1);
+    }
+
+    private long countLines(String format, boolean gzip) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/employees/export?format=" + format));
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        HttpResponse<InputStream> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+
+        InputStream body = gzip ? new GZIPInputStream(response.body()) : response.body();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            return reader.lines().count();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.casado.sb3.controller;
+
+import com.casado.sb3.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmployeeExportTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    void exportsOneJsonObjectPerLine() throws Exception {
+        String body = export("ndjson", null).getResponse().getContentAsString();
+
+        assertThat(body.lines()).hasSize((int) employeeRepository.count())
+                .allSatisfy(line -> assertThat(line).startsWith("{\"").endsWith("}"));
+    }
+
+    @Test
+    void exportsCsvWithHeader() throws Exception {
+        String body = export("csv", null).getResponse().getContentAsString();
+
+        assertThat(body.lines().findFirst()).hasValue(
+                "id,name,departmentId,departmentName,createdAt,createdBy,updatedAt,updatedBy,version");
+        assertThat(body.lines()).hasSize((int) employeeRepository.count() + 1);
+    }
+
+    @Test
+    void compressesWhenTheClientAcceptsGzip() throws Exception {
+        MvcResult result = export("ndjson", "gzip, deflate");
+
+        assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8).lines())
+                    .hasSize((int) employeeRepository.count());
+        }
+    }
+
+    @Test
+    void doesNotCompressWhenGzipHasZeroQuality() throws Exception {
+        MvcResult result = export("ndjson", "gzip;q=0, identity");
+
+        assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(result.getResponse().getContentAsString().lines()).hasSize((int) employeeRepository.count());
+    }
+
+    @Test
+    void rejectsUnknownFormats() throws Exception {
+        mockMvc.perform(get("/api/employees/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MvcResult export(String format, String acceptEncoding) throws Exception {
+        var builder = get("/api/employees/export").param("format", format);
+        if (acceptEncoding != null) {
+            builder.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+    }
+}
@@ -0,0 +1,64 @@
+package com.casado.sb3.controller;
+
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.service.DepartmentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PartialUpdateValidationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Test
+    void blankOrOverlongNamesAreRejected() throws Exception {
+        Long id = createDepartment("Validated");
+
+        mockMvc.perform(patch("/api/departments/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"   \"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.name").exists());
+        mockMvc.perform(patch("/api/departments/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + "x".repeat(51) + "\"}"))
+                .andExpect(status().isBadRequest());
+
+        assertThat(departmentService.getDepartmentById(id).getName()).isEqualTo("Validated");
+    }
+
+    @Test
+    void absentFieldsAreNotChecked() throws Exception {
+        Long id = createDepartment("Unchecked");
+
+        mockMvc.perform(patch("/api/departments/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/employees/{id}", Long.MAX_VALUE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"departmentName\":\"\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.departmentName").exists());
+    }
+
+    private Long createDepartment(String name) {
+        DepartmentDto dto = new DepartmentDto();
+        dto.setName(name);
+        return departmentService.createDepartment(dto).getId();
+    }
+}
@@ -0,0 +1,81 @@
+package com.casado.sb3.id;
+
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentPooledLoOptimizerTests {
+
+    private static final int INCREMENT_SIZE = 50;
+
+    private final AtomicLong sequence = new AtomicLong(1);
+
+    private final AccessCallback callback = new AccessCallback() {
+        @Override
+        public IntegralDataTypeHolder getNextValue() {
+            return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class)
+                    .initialize(sequence.getAndAdd(INCREMENT_SIZE));
+        }
+
+        @Override
+        public String getTenantIdentifier() {
+            return null;
+        }
+    };
+
+    @Test
+    void handsOutConsecutiveIdsFromEachBlock() {
+        ConcurrentPooledLoOptimizer optimizer = new ConcurrentPooledLoOptimizer(Long.class, INCREMENT_SIZE);
+
+        for (long expected = 1; expected <= 3 * INCREMENT_SIZE; expected++) {
+            assertThat(optimizer.generate(callback)).isEqualTo(expected);
+        }
+        assertThat(sequence.get()).isEqualTo(1 + 3 * INCREMENT_SIZE);
+    }
+
+    @Test
+    void concurrentCallersNeverReceiveTheSameId() throws Exception {
+        ConcurrentPooledLoOptimizer optimizer = new ConcurrentPooledLoOptimizer(Long.class, INCREMENT_SIZE);
+        int threads = 16;
+        int idsPerThread = 20_000;
+        Set<Object> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < idsPerThread; i++) {
+                        ids.add(optimizer.generate(callback));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(threads * idsPerThread);
+        // one sequence call per block handed out: racing threads never fetch a block of their own
+        assertThat(sequence.get()).isEqualTo(1 + (long) threads * idsPerThread);
+    }
+}
@@ -0,0 +1,237 @@
+package com.casado.sb3.job;
+
+import com.casado.sb3.dto.JobDto;
+import com.casado.sb3.entity.Job;
+import com.casado.sb3.repository.EmployeeRepository;
+import com.casado.sb3.repository.JobRepository;
+import com.casado.sb3.service.BulkImportService;
+import com.casado.sb3.service.JobService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {"app.bulk.chunk-size=3", "app.jobs.concurrency.counting=1",
+        "app.jobs.chunk-retry.delay=10ms", "app.jobs.chunk-retry.max-delay=20ms"})
+class JobSchedulerTests {
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private JobScheduler jobScheduler;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CountingJobHandler countingJobHandler;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void importRunsInCheckpointedChunks() throws Exception {
+        String ndjson = IntStream.range(0, 7)
+                .mapToObj(i -> "{\"name\":\"Job Import " + i + "\",\"departmentName\":\"Job Imports\"}")
+                .collect(Collectors.joining("\n", "", "\n{\"departmentName\":\"No name\"}\n"));
+
+        JobDto job = bulkImportService.importAsync(BulkImportService.Target.EMPLOYEES,
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), MediaType.APPLICATION_NDJSON_VALUE);
+        assertThat(job.getTotal()).isEqualTo(ndjson.getBytes(StandardCharsets.UTF_8).length);
+
+        JobDto done = awaitFinished(job.getId());
+
+        assertThat(done.getStatus()).isEqualTo("COMPLETED");
+        assertThat(done.getProcessed()).isEqualTo(done.getTotal());
+        assertThat(objectMapper.readTree(done.getResult()).get("imported").asLong()).isEqualTo(7);
+        assertThat(objectMapper.readTree(done.getResult()).get("failed").asLong()).isEqualTo(1);
+        assertThat(employeeRepository.findByNameContainingIgnoreCase("Job Import ")).hasSize(7);
+    }
+
+    @Test
+    void jobsOfOneTypeRunOneAtATime() throws Exception {
+        countingJobHandler.reset(new CountDownLatch(1));
+        List<JobDto> jobs = IntStream.range(0, 3)
+                .mapToObj(i -> jobService.submit(CountingJobHandler.TYPE, new CountingJobHandler.Parameters(2)))
+                .toList();
+
+        assertThat(countingJobHandler.entered.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(jobs.stream().map(job -> jobService.getJob(job.getId()).getStatus()))
+                .containsExactlyInAnyOrder("RUNNING", "QUEUED", "QUEUED");
+
+        countingJobHandler.gate.countDown();
+        for (JobDto job : jobs) {
+            assertThat(awaitFinished(job.getId()).getStatus()).isEqualTo("COMPLETED");
+        }
+        assertThat(countingJobHandler.maxRunning.get()).isEqualTo(1);
+    }
+
+    @Test
+    void saturatedTypeDoesNotStarveOtherTypes() throws Exception {
+        countingJobHandler.reset(new CountDownLatch(1));
+        List<JobDto> counting = IntStream.range(0, 20) // more than one dispatch query returns
+                .mapToObj(i -> jobService.submit(CountingJobHandler.TYPE, new CountingJobHandler.Parameters(1)))
+                .toList();
+        assertThat(countingJobHandler.entered.await(10, TimeUnit.SECONDS)).isTrue();
+
+        JobDto job = bulkImportService.importAsync(BulkImportService.Target.EMPLOYEES,
+                new ByteArrayInputStream("{\"name\":\"Not Starved\",\"departmentName\":\"Job Imports\"}\n"
+                        .getBytes(StandardCharsets.UTF_8)), MediaType.APPLICATION_NDJSON_VALUE);
+
+        assertThat(awaitFinished(job.getId()).getStatus()).isEqualTo("COMPLETED");
+        countingJobHandler.gate.countDown();
+        for (JobDto queued : counting) {
+            assertThat(awaitFinished(queued.getId()).getStatus()).isEqualTo("COMPLETED");
+        }
+    }
+
+    @Test
+    void chunkFailingWithATransientErrorIsRetried() throws Exception {
+        countingJobHandler.reset(new CountDownLatch(0));
+        countingJobHandler.transientFailures.set(2);
+
+        JobDto done = awaitFinished(jobService.submit(CountingJobHandler.TYPE, new CountingJobHandler.Parameters(2)).getId());
+
+        assertThat(done.getStatus()).isEqualTo("COMPLETED");
+        assertThat(objectMapper.readTree(done.getResult()).get("runs").asInt()).isEqualTo(2);
+        assertThat(countingJobHandler.transientFailures.get()).isZero();
+    }
+
+    @Test
+    void interruptedJobResumesFromItsCheckpoint() throws Exception {
+        countingJobHandler.reset(new CountDownLatch(0));
+        Job job = new Job();
+        job.setId(UUID.randomUUID().toString());
+        job.setType(CountingJobHandler.TYPE);
+        job.setStatus(JobStatus.RUNNING); // as left by a process that died mid-job
+        job.setParameters(objectMapper.writeValueAsString(new CountingJobHandler.Parameters(5)));
+        CountingJobHandler.State state = new CountingJobHandler.State();
+        state.setChunks(3);
+        job.setCheckpoint(objectMapper.writeValueAsString(state));
+        job.setTotal(5L);
+        job.setProcessed(3);
+        job.setCreatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+
+        jobScheduler.stop();
+        jobScheduler.start();
+
+        JobDto done = awaitFinished(job.getId());
+        assertThat(done.getStatus()).isEqualTo("COMPLETED");
+        assertThat(done.getProcessed()).isEqualTo(5);
+        assertThat(objectMapper.readTree(done.getResult()).get("runs").asInt()).isEqualTo(2);
+    }
+
+    private JobDto awaitFinished(String id) {
+        return await().atMost(Duration.ofSeconds(10))
+                .until(() -> jobService.getJob(id),
+                        job -> job.getStatus().equals("COMPLETED") || job.getStatus().equals("FAILED"));
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        CountingJobHandler countingJobHandler() {
+            return new CountingJobHandler();
+        }
+    }
+
+    /**
+     * Counts to the given number of chunks, waiting at the gate before each.
+     */
+    static class CountingJobHandler implements JobHandler<CountingJobHandler.Parameters, CountingJobHandler.State> {
+
+        static final String TYPE = "counting";
+
+        volatile CountDownLatch gate = new CountDownLatch(0);
+        volatile CountDownLatch entered = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger transientFailures = new AtomicInteger();
+
+        void reset(CountDownLatch gate) {
+            this.gate = gate;
+            entered = new CountDownLatch(1);
+            maxRunning.set(0);
+            transientFailures.set(0);
+        }
+
+        @Override
+        public String type() {
+            return TYPE;
+        }
+
+        @Override
+        public Class<Parameters> parametersType() {
+            return Parameters.class;
+        }
+
+        @Override
+        public Class<State> stateType() {
+            return State.class;
+        }
+
+        @Override
+        public State start(Parameters parameters, JobContext context) {
+            context.setTotal((long) parameters.chunks());
+            return new State();
+        }
+
+        @Override
+        public boolean runChunk(Parameters parameters, State state, JobContext context) {
+            if (transientFailures.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                throw new CannotAcquireLockException("Lock wait timeout");
+            }
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            entered.countDown();
+            try {
+                gate.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            state.setChunks(state.getChunks() + 1);
+            state.setRuns(state.getRuns() + 1);
+            context.addProcessed(1);
+            return state.getChunks() >= parameters.chunks();
+        }
+
+        record Parameters(int chunks) {
+        }
+
+        @Data
+        static class State {
+            private int chunks;
+            private int runs;
+        }
+    }
+}
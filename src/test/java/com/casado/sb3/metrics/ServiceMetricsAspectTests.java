@@ -0,0 +1,70 @@
+package com.casado.sb3.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ServiceMetricsAspectTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void employeePageCountsOneRoundTripAndOneCall() throws Exception {
+        double roundTrips = roundTrips("getEmployeesPage");
+        long calls = calls("getEmployeesPage");
+
+        mockMvc.perform(get("/api/employees").param("size", "2")).andExpect(status().isOk());
+
+        assertThat(roundTrips("getEmployeesPage") - roundTrips).isEqualTo(1);
+        assertThat(calls("getEmployeesPage") - calls).isEqualTo(1);
+    }
+
+    @Test
+    void streamedListingCountsTheStampAndTheCursorQueries() throws Exception {
+        double stampRoundTrips = roundTrips("getAllEmployeesStamp");
+        double streamRoundTrips = roundTrips("streamAllEmployees");
+
+        MvcResult started = mockMvc.perform(get("/api/employees"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        // one query for the counters of both tables the listing reads, then the cursor
+        assertThat(roundTrips("getAllEmployeesStamp") - stampRoundTrips).isEqualTo(1);
+        assertThat(roundTrips("streamAllEmployees") - streamRoundTrips).isEqualTo(1);
+    }
+
+    private double roundTrips(String method) {
+        Counter counter = meterRegistry.find("app.service.db.roundtrips")
+                .tag("service", "EmployeeService")
+                .tag("method", method)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private long calls(String method) {
+        Timer timer = meterRegistry.find("app.service.calls")
+                .tag("service", "EmployeeService")
+                .tag("method", method)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
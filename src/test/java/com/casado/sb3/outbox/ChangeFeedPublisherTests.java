@@ -0,0 +1,76 @@
+package com.casado.sb3.outbox;
+
+import com.casado.sb3.dto.ChangeEventDto;
+import com.casado.sb3.util.CursorUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeFeedPublisherTests {
+
+    private static final int BUFFER = 3;
+
+    @Test
+    void aStuckClientHoldsUpNeitherThePublisherNorTheOtherClients() throws Exception {
+        ChangeFeedPublisher publisher = new ChangeFeedPublisher(BUFFER);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch stuckCompleted = new CountDownLatch(1);
+        List<SseEmitter.SseEventBuilder> received = new CopyOnWriteArrayList<>();
+        Semaphore fastReceived = new Semaphore(0);
+        try {
+            SseEmitter stuck = new SseEmitter() {
+                @Override
+                public void send(SseEventBuilder builder) throws IOException {
+                    try {
+                        release.await(); // a client that stopped reading
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                @Override
+                public void complete() {
+                    stuckCompleted.countDown();
+                }
+            };
+            SseEmitter fast = new SseEmitter() {
+                @Override
+                public void send(SseEventBuilder builder) {
+                    received.add(builder);
+                    fastReceived.release();
+                }
+            };
+            publisher.register(stuck, 0).goLive();
+            publisher.register(fast, 0).goLive();
+
+            long started = System.nanoTime();
+            for (int position = 1; position <= BUFFER + 2; position++) {
+                publisher.publish(List.of(event(position)));
+                // a client that keeps up: it has each event before the next one is relayed
+                assertThat(fastReceived.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+            }
+
+            assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started)).isLessThan(1);
+            assertThat(received).hasSize(BUFFER + 2);
+            // fell more than the buffer behind: completed, to resume from its Last-Event-ID
+            assertThat(stuckCompleted.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            release.countDown();
+            publisher.shutdown();
+        }
+    }
+
+    private static ChangeEventDto event(long position) {
+        ChangeEventDto event = new ChangeEventDto();
+        event.setCursor(CursorUtils.encode(position));
+        return event;
+    }
+}
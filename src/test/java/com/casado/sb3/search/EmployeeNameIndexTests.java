@@ -0,0 +1,84 @@
+package com.casado.sb3.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeNameIndexTests {
+
+    private final EmployeeNameIndex index = new EmployeeNameIndex();
+
+    @Test
+    void matchesWordPrefixesIgnoringCaseAndAccents() {
+        index.index(1, "Antonio Casadò");
+        index.index(2, "Alice Smith");
+        index.index(3, "Bob Johnson");
+
+        assertThat(index.search("casado", 0, 10)).containsExactly(1L);
+        assertThat(index.search("AL", 0, 10)).containsExactly(2L);
+        assertThat(index.search("an cas", 0, 10)).containsExactly(1L);
+        assertThat(index.search("son", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void reindexAndRemoveReplaceOldTokens() {
+        index.index(1, "Clara White");
+        index.index(1, "Maria Costa");
+
+        assertThat(index.search("clara", 0, 10)).isEmpty();
+        assertThat(index.search("maria", 0, 10)).containsExactly(1L);
+
+        index.remove(1);
+        assertThat(index.search("maria", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void pagesWithOffsetAndLimit() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(id, "Smith " + id);
+        }
+
+        assertThat(index.search("smi", 0, 2)).containsExactly(1L, 2L);
+        assertThat(index.search("smi", 2, 2)).containsExactly(3L, 4L);
+        assertThat(index.search("smi", 4, 2)).containsExactly(5L);
+    }
+
+    @Test
+    void concurrentRenamesOfOneEmployeeLeaveOnlyOneName() throws Exception {
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String name = "Name" + t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 10_000; i++) {
+                        index.index(1, name);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long namesFound = IntStream.range(0, threads)
+                .filter(t -> !index.search("name" + t, 0, 10).isEmpty())
+                .count();
+        assertThat(namesFound).isEqualTo(1);
+    }
+}
@@ -0,0 +1,165 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.audit.AuditAction;
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.dto.BulkImportResultDto;
+import com.casado.sb3.dto.BulkRowErrorDto;
+import com.casado.sb3.dto.JobDto;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.repository.DepartmentRepository;
+import com.casado.sb3.repository.EmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.AopTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest(properties = "app.bulk.chunk-size=2")
+class BulkImportServiceTests {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoSpyBean
+    private OutboxService outboxService;
+
+    @Test
+    void departmentsAreImportedInChunksAndEachRejectedRowIsCountedOnce() throws IOException {
+        String ndjson = """
+                {"name":"Bulk Alpha"}
+                {"name":"Bulk Alpha"}
+                {"name":"Bulk Beta"}
+                {"name":"abc"}
+                not json
+                {"name":"Bulk Alpha"}
+                """;
+
+        BulkImportResultDto result = bulkImportService.importDepartments(stream(ndjson), MediaType.APPLICATION_NDJSON_VALUE);
+
+        assertThat(result.getReceived()).isEqualTo(6);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getErrors())
+                .extracting(BulkRowErrorDto::getLine, BulkRowErrorDto::getCode)
+                .containsExactlyInAnyOrder(
+                        tuple(2L, BulkImportService.DUPLICATE), // same chunk
+                        tuple(4L, BulkImportService.INVALID),
+                        tuple(5L, BulkImportService.MALFORMED),
+                        tuple(6L, BulkImportService.DUPLICATE)); // committed by an earlier chunk
+        assertThat(departmentRepository.findByName("Bulk Alpha")).isPresent();
+        assertThat(departmentRepository.findByName("Bulk Beta")).isPresent();
+    }
+
+    @Test
+    void rolledBackChunkRejectsItsRowsOnceWithoutTheCause() throws IOException {
+        failChunkWith("Bulk Gamma");
+        String ndjson = """
+                {"name":"Bulk Gamma"}
+                {"name":"Bulk Gamma"}
+                {"name":"Bulk Delta"}
+                {"name":"Bulk Epsilon"}
+                """;
+
+        BulkImportResultDto result = bulkImportService.importDepartments(stream(ndjson), MediaType.APPLICATION_NDJSON_VALUE);
+
+        assertThat(result.getReceived()).isEqualTo(4);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors())
+                .extracting(BulkRowErrorDto::getLine, BulkRowErrorDto::getCode)
+                .containsExactly(tuple(1L, BulkImportService.CONFLICT), tuple(2L, BulkImportService.CONFLICT));
+        assertThat(result.getErrors()).allSatisfy(error -> assertThat(error.getError()).doesNotContain("constraint"));
+        assertThat(departmentRepository.findByName("Bulk Gamma")).isEmpty();
+        assertThat(departmentRepository.findByName("Bulk Epsilon")).isPresent();
+    }
+
+    @Test
+    void asyncImportRejectsARolledBackChunkLikeTheSynchronousImport() throws IOException {
+        failChunkWith("Async Gamma");
+        String ndjson = """
+                {"name":"Async Gamma"}
+                {"name":"Async Delta"}
+                {"name":"Async Epsilon"}
+                """;
+
+        JobDto job = bulkImportService.importAsync(BulkImportService.Target.DEPARTMENTS, stream(ndjson),
+                MediaType.APPLICATION_NDJSON_VALUE);
+        JobDto done = await().atMost(Duration.ofSeconds(10))
+                .until(() -> jobService.getJob(job.getId()),
+                        current -> current.getStatus().equals("COMPLETED") || current.getStatus().equals("FAILED"));
+
+        assertThat(done.getStatus()).isEqualTo("COMPLETED");
+        BulkImportResultDto result = objectMapper.readValue(done.getResult(), BulkImportResultDto.class);
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors())
+                .extracting(BulkRowErrorDto::getLine, BulkRowErrorDto::getCode)
+                .containsExactly(tuple(1L, BulkImportService.CONFLICT), tuple(2L, BulkImportService.CONFLICT));
+        assertThat(departmentRepository.findByName("Async Delta")).isEmpty();
+        assertThat(departmentRepository.findByName("Async Epsilon")).isPresent();
+    }
+
+    @Test
+    void csvEmployeesShareOneNewDepartment() throws IOException {
+        String csv = """
+                name,departmentName
+                Csv Import One,Csv Imports
+                "Csv, Import Two",Csv Imports
+                abc,Csv Imports
+                """;
+
+        BulkImportResultDto result = bulkImportService.importEmployees(stream(csv), ProjectConstants.TEXT_CSV_VALUE);
+
+        assertThat(result.getReceived()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors())
+                .extracting(BulkRowErrorDto::getLine, BulkRowErrorDto::getCode)
+                .containsExactly(tuple(4L, BulkImportService.INVALID));
+        Long departmentId = departmentRepository.findByName("Csv Imports").orElseThrow().getId();
+        assertThat(employeeRepository.findByDepartmentId(departmentId))
+                .extracting(Employee::getName)
+                .containsExactlyInAnyOrder("Csv Import One", "Csv, Import Two");
+    }
+
+    private void failChunkWith(String name) {
+        // stubbed on the spy behind the transactional proxy: through the proxy, the MANDATORY
+        // propagation would reject the stubbing call itself
+        OutboxService spy = AopTestUtils.getUltimateTargetObject(outboxService);
+        doThrow(new DataIntegrityViolationException("constraint detail that must not leak"))
+                .when(spy).appendDepartments(argThat((Collection<Department> departments) -> departments
+                        .stream().anyMatch(department -> name.equals(department.getName()))), eq(AuditAction.CREATE));
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
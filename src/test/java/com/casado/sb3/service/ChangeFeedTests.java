@@ -0,0 +1,73 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.dto.ChangeEventDto;
+import com.casado.sb3.dto.CursorPageDto;
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.exception.StaleVersionException;
+import com.casado.sb3.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ChangeFeedTests {
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private ReorganizationService reorganizationService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void writesAppearInTheFeedInOrder() throws InterruptedException {
+        String since = outboxService.getChanges(null, Integer.MAX_VALUE).getNextCursor();
+
+        DepartmentDto created = new DepartmentDto();
+        created.setName("Feed");
+        Long id = departmentService.createDepartment(created).getId();
+        DepartmentDto patch = new DepartmentDto();
+        patch.setName("Feed Renamed");
+        departmentService.patchDepartment(id, patch);
+        reorganizationService.deleteDepartment(id, DepartmentDeletionMode.CASCADE, null, null);
+
+        List<ChangeEventDto> changes = new ArrayList<>();
+        for (int attempt = 0; attempt < 50 && changes.size() < 3; attempt++) {
+            Thread.sleep(100);
+            CursorPageDto<ChangeEventDto> page = outboxService.getChanges(since, 100);
+            changes.addAll(page.getItems().stream().filter(change -> id.equals(change.getEntityId())).toList());
+            since = page.getNextCursor();
+        }
+
+        assertThat(changes).extracting(ChangeEventDto::getAction).containsExactly("CREATE", "UPDATE", "DELETE");
+        assertThat(changes).extracting(ChangeEventDto::getEntityVersion).isSorted();
+        assertThat(changes.get(1).getPayload()).contains("Feed Renamed");
+    }
+
+    @Test
+    void rolledBackWritesLeaveNoOutboxRow() {
+        DepartmentDto created = new DepartmentDto();
+        created.setName("Rolled back");
+        Long id = departmentService.createDepartment(created).getId();
+        long before = outboxEventRepository.count();
+
+        DepartmentDto stale = new DepartmentDto();
+        stale.setName("Never committed");
+        stale.setVersion(-1L);
+        assertThatThrownBy(() -> departmentService.patchDepartment(id, stale))
+                .isInstanceOf(StaleVersionException.class);
+
+        assertThat(outboxEventRepository.count()).isEqualTo(before);
+    }
+}
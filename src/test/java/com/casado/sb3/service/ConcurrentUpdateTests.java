@@ -0,0 +1,148 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.exception.StaleVersionException;
+import com.casado.sb3.repository.DepartmentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.retry.max-attempts=10")
+@AutoConfigureMockMvc
+class ConcurrentUpdateTests {
+
+    private static final int WRITERS = 8;
+    private static final int WRITES_PER_WRITER = 25;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void concurrentPatchesAreNeverLost() throws Exception {
+        DepartmentDto created = new DepartmentDto();
+        created.setName("Contended");
+        Long id = departmentService.createDepartment(created).getId();
+        long initialVersion = departmentRepository.findById(id).orElseThrow().getVersion();
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger conflicted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                int writerId = writer;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                        DepartmentDto patch = new DepartmentDto();
+                        patch.setName("Contended-" + writerId + "-" + i);
+                        try {
+                            departmentService.patchDepartment(id, patch);
+                            succeeded.incrementAndGet();
+                        } catch (OptimisticLockingFailureException ex) {
+                            conflicted.incrementAndGet(); // retries exhausted, reported to the caller
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // every acknowledged write produced exactly one new version: none was overwritten silently
+        long finalVersion = departmentRepository.findById(id).orElseThrow().getVersion();
+        assertThat(succeeded.get() + conflicted.get()).isEqualTo(WRITERS * WRITES_PER_WRITER);
+        assertThat(finalVersion - initialVersion).isEqualTo(succeeded.get());
+        assertThat(succeeded.get()).isPositive();
+    }
+
+    @Test
+    void staleClientVersionIsRejectedWithoutRetry() {
+        DepartmentDto created = new DepartmentDto();
+        created.setName("Pinned");
+        Long id = departmentService.createDepartment(created).getId();
+        Long version = departmentRepository.findById(id).orElseThrow().getVersion();
+
+        DepartmentDto first = new DepartmentDto();
+        first.setName("Pinned v1");
+        first.setVersion(version);
+        departmentService.patchDepartment(id, first);
+
+        DepartmentDto stale = new DepartmentDto();
+        stale.setName("Pinned v2");
+        stale.setVersion(version);
+        assertThatThrownBy(() -> departmentService.patchDepartment(id, stale))
+                .isInstanceOf(StaleVersionException.class);
+        assertThat(departmentRepository.findById(id).orElseThrow().getName()).isEqualTo("Pinned v1");
+    }
+
+    @Test
+    void concurrentWritersWithTheSameIfMatchGetOneSuccessAndTheRest412() throws Exception {
+        DepartmentDto created = new DepartmentDto();
+        created.setName("Preconditioned");
+        Long id = departmentService.createDepartment(created).getId();
+        long initialVersion = departmentRepository.findById(id).orElseThrow().getVersion();
+        String eTag = mockMvc.perform(get("/api/departments/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            List<Future<Integer>> writers = new ArrayList<>();
+            for (int writer = 0; writer < WRITERS; writer++) {
+                int writerId = writer;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(patch("/api/departments/{id}", id)
+                                    .header(HttpHeaders.IF_MATCH, eTag)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content("{\"name\":\"Preconditioned-" + writerId + "\"}"))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> writer : writers) {
+                statuses.add(writer.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // the losers' flush conflicts are retried and then fail the precondition, never a 409
+        assertThat(statuses).filteredOn(status -> status == HttpStatus.OK.value()).hasSize(1);
+        assertThat(statuses).filteredOn(status -> status == HttpStatus.PRECONDITION_FAILED.value())
+                .hasSize(WRITERS - 1);
+        assertThat(departmentRepository.findById(id).orElseThrow().getVersion()).isEqualTo(initialVersion + 1);
+    }
+}
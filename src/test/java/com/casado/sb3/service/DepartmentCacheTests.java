@@ -0,0 +1,135 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.dto.EmployeeDto;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.repository.DepartmentRepository;
+import com.casado.sb3.repository.EmployeeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class DepartmentCacheTests {
+
+    private static final String EMPLOYEES_ROLE = Department.class.getName() + ".employees";
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void hotDepartmentReadIsServedFromCacheAndInvalidatedOnUpdate() {
+        Long id = departmentRepository.findByName("Human Resources").orElseThrow().getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        departmentService.getDepartmentById(id);
+        statistics.clear();
+        departmentService.getDepartmentById(id);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        DepartmentDto update = new DepartmentDto();
+        update.setName("People Operations");
+        departmentService.updateDepartment(id, update);
+
+        assertThat(departmentService.getDepartmentById(id).getName()).isEqualTo("People Operations");
+    }
+
+    @Test
+    void insertedEmployeeEvictsTheCachedEmployeeList() {
+        Long id = departmentRepository.findByName("Engineering").orElseThrow().getId();
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        employeeNames(id);
+        assertThat(cache.containsCollection(EMPLOYEES_ROLE, id)).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Employee newcomer = new Employee();
+            newcomer.setName("Cached Newcomer");
+            newcomer.setDepartment(departmentRepository.getReferenceById(id));
+            employeeRepository.save(newcomer); // the inverse side, Department.employees, is not touched
+        });
+
+        assertThat(employeeNames(id)).contains("Cached Newcomer");
+    }
+
+    @Test
+    void readDuringAnUncommittedUpdateDoesNotCacheTheOldRow() {
+        DepartmentDto finance = new DepartmentDto();
+        finance.setName("Finance");
+        Long id = departmentService.createDepartment(finance).getId();
+        departmentService.getDepartmentById(id);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            DepartmentDto update = new DepartmentDto();
+            update.setName("Treasury");
+            departmentService.updateDepartment(id, update);
+
+            // another request misses the cache while the update is not yet committed
+            String seen = CompletableFuture.supplyAsync(() -> departmentService.getDepartmentById(id).getName()).join();
+            assertThat(seen).isEqualTo("Finance");
+        });
+
+        assertThat(departmentService.getDepartmentById(id).getName()).isEqualTo("Treasury");
+    }
+
+    @Test
+    void readsDuringAnUncommittedMoveDoNotCacheTheOldEmployeeOrDepartment() {
+        Department from = new Department();
+        from.setName("Moving From");
+        Department to = new Department();
+        to.setName("Moving To");
+        departmentRepository.saveAll(List.of(from, to));
+        Employee employee = new Employee();
+        employee.setName("Moving Employee");
+        employee.setDepartment(from);
+        Long id = employeeRepository.save(employee).getId();
+        employeeService.getEmployeeById(id);
+        departmentService.getDepartmentById(from.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            EmployeeDto move = new EmployeeDto();
+            move.setDepartmentId(to.getId());
+            employeeService.patchEmployee(id, move);
+
+            CompletableFuture.runAsync(() -> {
+                assertThat(employeeService.getEmployeeById(id).getDepartmentId()).isEqualTo(from.getId());
+                assertThat(departmentService.getDepartmentById(from.getId()).getEmployees())
+                        .extracting(EmployeeDto::getId).contains(id);
+            }).join();
+        });
+
+        assertThat(employeeService.getEmployeeById(id).getDepartmentId()).isEqualTo(to.getId());
+        assertThat(departmentService.getDepartmentById(from.getId()).getEmployees())
+                .extracting(EmployeeDto::getId).doesNotContain(id);
+    }
+
+    private List<String> employeeNames(Long departmentId) {
+        return transactionTemplate.execute(status -> departmentRepository.findById(departmentId).orElseThrow()
+                .getEmployees().stream().map(Employee::getName).toList());
+    }
+}
@@ -0,0 +1,113 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.constants.ProjectConstants;
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.repository.DepartmentRepository;
+import com.casado.sb3.repository.EmployeeRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class DepartmentQueryCountTests {
+
+    private static final int HEADCOUNT = ProjectConstants.DEFAULT_PAGE_SIZE + 10;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long departmentId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void createLargeDepartment() {
+        departmentId = transactionTemplate.execute(status -> {
+            Department department = new Department();
+            department.setName("Headcount " + System.nanoTime() % 100_000);
+            departmentRepository.save(department);
+            employeeRepository.saveAll(IntStream.range(0, HEADCOUNT).mapToObj(i -> {
+                Employee employee = new Employee();
+                employee.setName("Headcount Employee " + i);
+                employee.setDepartment(department);
+                return employee;
+            }).toList());
+            return department.getId();
+        });
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listingIsOneStatementWithoutEmployees() throws Exception {
+        departmentService.getAllDepartments();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+
+        JsonNode listing = objectMapper.readTree(mockMvc.perform(get("/api/departments"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray());
+        JsonNode large = StreamSupport.stream(listing.spliterator(), false)
+                .filter(department -> department.get("id").asLong() == departmentId)
+                .findFirst().orElseThrow();
+        assertThat(large.get("employeeCount").asLong()).isEqualTo(HEADCOUNT);
+        assertThat(listing).allSatisfy(department -> {
+            assertThat(department.has("employees")).isFalse();
+            assertThat(department.has("employeesNextCursor")).isFalse();
+        });
+    }
+
+    @Test
+    void detailsEmbedOnePageInAConstantNumberOfStatements() throws Exception {
+        DepartmentDto details = departmentService.getDepartmentById(departmentId);
+
+        // department (unless cached), one page of employees and the headcount, however large the department
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        assertThat(details.getEmployees()).hasSize(ProjectConstants.DEFAULT_PAGE_SIZE);
+        assertThat(details.getEmployeeCount()).isEqualTo(HEADCOUNT);
+        assertThat(details.getEmployeesNextCursor()).isNotNull();
+
+        JsonNode json = objectMapper.readTree(mockMvc.perform(get("/api/departments/{id}", departmentId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray());
+        assertThat(json.get("employees")).hasSize(ProjectConstants.DEFAULT_PAGE_SIZE);
+        assertThat(json.get("employeesNextCursor").asText()).isEqualTo(details.getEmployeesNextCursor());
+    }
+}
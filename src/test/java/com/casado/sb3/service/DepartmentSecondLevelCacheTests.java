@@ -0,0 +1,127 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.cache.CacheInvalidation;
+import com.casado.sb3.cache.CacheInvalidationTransport;
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.repository.DepartmentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class DepartmentSecondLevelCacheTests {
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private RecordingTransport transport;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+        cache = sessionFactory.getCache();
+    }
+
+    @Test
+    void departmentAndItsEmployeesAreServedFromTheSecondLevelCache() {
+        Long id = departmentRepository.findByName("Engineering").orElseThrow().getId();
+        int headcount = employeeCount(id);
+        statistics.clear();
+
+        assertThat(employeeCount(id)).isEqualTo(headcount);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void findByNameIsServedFromTheQueryCache() {
+        departmentRepository.findByName("Human Resources").orElseThrow();
+        statistics.clear();
+
+        departmentRepository.findByName("Human Resources").orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void committedWritesArePublishedAndRemoteInvalidationsEvict() {
+        DepartmentDto created = new DepartmentDto();
+        created.setName("Cached");
+        Long id = departmentService.createDepartment(created).getId();
+        employeeCount(id);
+        assertThat(cache.containsEntity(Department.class, id)).isTrue();
+        transport.published.clear();
+
+        DepartmentDto patch = new DepartmentDto();
+        patch.setName("Cached Renamed");
+        departmentService.patchDepartment(id, patch);
+        assertThat(transport.published).contains(CacheInvalidation.department(id));
+
+        employeeCount(id);
+        transport.handler.accept(CacheInvalidation.department(id));
+        assertThat(cache.containsEntity(Department.class, id)).isFalse();
+        assertThat(cache.containsCollection(Department.class.getName() + ".employees", id)).isFalse();
+    }
+
+    private int employeeCount(Long id) {
+        Integer count = transactionTemplate.execute(status ->
+                departmentRepository.findById(id).orElseThrow().getEmployees().size());
+        return count == null ? 0 : count;
+    }
+
+    @TestConfiguration
+    static class TransportConfig {
+
+        @Bean
+        RecordingTransport recordingTransport() {
+            return new RecordingTransport();
+        }
+    }
+
+    static class RecordingTransport implements CacheInvalidationTransport {
+
+        final List<CacheInvalidation> published = new CopyOnWriteArrayList<>();
+        volatile Consumer<CacheInvalidation> handler;
+
+        @Override
+        public void publish(CacheInvalidation invalidation) {
+            published.add(invalidation);
+        }
+
+        @Override
+        public void subscribe(Consumer<CacheInvalidation> handler) {
+            this.handler = handler;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.repository.DepartmentRepository;
+import com.casado.sb3.repository.EmployeeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class EmployeeQueryCountTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllEmployeesIssuesSingleStatement() {
+        assertThat(employeeService.getAllEmployees()).isNotEmpty();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getEmployeesPageIssuesSingleStatement() {
+        assertThat(employeeService.getEmployeesPage(null, 2).getItems()).hasSize(2);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findAllFetchesDepartmentsInSameStatement() {
+        transactionTemplate.executeWithoutResult(status ->
+                employeeRepository.findAll().forEach(employee -> {
+                    if (employee.getDepartment() != null) {
+                        employee.getDepartment().getName();
+                    }
+                }));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findByDepartmentIdFetchesDepartmentInSameStatement() {
+        Department engineering = departmentRepository.findByName("Engineering").orElseThrow();
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status ->
+                employeeRepository.findByDepartmentId(engineering.getId())
+                        .forEach(employee -> employee.getDepartment().getName()));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
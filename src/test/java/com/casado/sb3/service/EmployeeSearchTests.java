@@ -0,0 +1,45 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.dto.CursorPageDto;
+import com.casado.sb3.dto.EmployeeDto;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.repository.EmployeeRepository;
+import com.casado.sb3.util.CursorUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.search.max-results=3")
+class EmployeeSearchTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    void pagingStopsAtTheResultCap() {
+        employeeRepository.saveAll(IntStream.range(0, 5).mapToObj(i -> {
+            Employee employee = new Employee();
+            employee.setName("Capsearch Person " + i);
+            return employee;
+        }).toList());
+
+        CursorPageDto<EmployeeDto> first = employeeService.searchEmployees("capsearch", null, 2);
+        assertThat(first.getItems()).hasSize(2);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        CursorPageDto<EmployeeDto> last = employeeService.searchEmployees("capsearch", first.getNextCursor(), 2);
+        assertThat(last.getItems()).hasSize(1);
+        assertThat(last.getNextCursor()).isNull();
+
+        CursorPageDto<EmployeeDto> past = employeeService.searchEmployees("capsearch", CursorUtils.encode(3), 2);
+        assertThat(past.getItems()).isEmpty();
+        assertThat(past.getNextCursor()).isNull();
+    }
+}
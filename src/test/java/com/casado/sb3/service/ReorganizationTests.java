@@ -0,0 +1,229 @@
+package com.casado.sb3.service;
+
+import com.casado.sb3.audit.AuditAction;
+import com.casado.sb3.dto.DepartmentDto;
+import com.casado.sb3.dto.JobDto;
+import com.casado.sb3.dto.ReassignRequestDto;
+import com.casado.sb3.dto.ReassignResultDto;
+import com.casado.sb3.entity.Department;
+import com.casado.sb3.entity.Employee;
+import com.casado.sb3.entity.OutboxEvent;
+import com.casado.sb3.exception.InvalidReassignmentException;
+import com.casado.sb3.repository.DepartmentRepository;
+import com.casado.sb3.repository.EmployeeRepository;
+import com.casado.sb3.repository.OutboxEventRepository;
+import com.casado.sb3.search.EmployeeNameIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "app.bulk.update-batch-size=2")
+class ReorganizationTests {
+
+    @Autowired
+    private ReorganizationService reorganizationService;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EmployeeNameIndex employeeNameIndex;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void mergeMovesEveryEmployeeInBatchesAndDeletesTheSource() {
+        Long sourceId = createDepartment("Merge Source");
+        Long targetId = createDepartment("Merge Target");
+        List<Long> ids = createEmployees(sourceId, 5);
+        long versionBefore = employeeService.getEmployeeById(ids.get(0)).getVersion();
+
+        ReassignResultDto result = reorganizationService.mergeDepartment(sourceId, targetId);
+
+        assertThat(result.getRequested()).isEqualTo(5);
+        assertThat(result.getMoved()).isEqualTo(5);
+        assertThat(result.getSkipped()).isZero();
+        assertThat(result.getStatements()).isEqualTo(3);
+        assertThat(result.getDepartmentsDeleted()).isEqualTo(1);
+        assertThat(departmentRepository.existsById(sourceId)).isFalse();
+        assertThat(employeeRepository.findIdsByDepartmentId(targetId, Pageable.unpaged())).containsExactlyElementsOf(ids);
+        assertThat(employeeService.getEmployeeById(ids.get(0)).getVersion()).isEqualTo(versionBefore + 1);
+        assertThat(employeeService.getEmployeeById(ids.get(0)).getDepartmentName()).isEqualTo("Merge Target");
+
+        List<OutboxEvent> moves = outboxEventRepository.findAll().stream()
+                .filter(event -> ids.contains(event.getEntityId()))
+                .filter(event -> event.getAction() == AuditAction.UPDATE)
+                .toList();
+        assertThat(moves).hasSize(5).allSatisfy(event -> {
+            assertThat(event.getEntityVersion()).isEqualTo(versionBefore + 1);
+            assertThat(event.getPayload()).contains("Merge Target");
+        });
+    }
+
+    @Test
+    void reassignSkipsUnknownEmployeesAndThoseAlreadyInTheDepartment() {
+        Long sourceId = createDepartment("Reassign Source");
+        Long targetId = createDepartment("Reassign Target");
+        List<Long> moving = createEmployees(sourceId, 3);
+        List<Long> staying = createEmployees(targetId, 1);
+
+        ReassignRequestDto request = new ReassignRequestDto();
+        List<Long> requested = new ArrayList<>(moving);
+        requested.addAll(staying);
+        requested.add(moving.get(0)); // duplicate
+        requested.add(Long.MAX_VALUE); // unknown
+        request.setEmployeeIds(requested);
+        request.setDepartmentId(targetId);
+
+        ReassignResultDto result = reorganizationService.reassignEmployees(request);
+
+        assertThat(result.getRequested()).isEqualTo(5);
+        assertThat(result.getMoved()).isEqualTo(3);
+        assertThat(result.getSkipped()).isEqualTo(2);
+        assertThat(result.getDepartmentsDeleted()).isZero();
+        assertThat(employeeRepository.countByDepartmentId(sourceId)).isZero();
+        assertThat(departmentService.getDepartmentById(targetId).getEmployeeCount()).isEqualTo(4);
+    }
+
+    @Test
+    void employeesAreLockedBeforeTheirStateIsRead() throws Exception {
+        Long id = createDepartment("Locked");
+        List<Long> ids = createEmployees(id, 2);
+        CompletableFuture<Integer> rename = transactionTemplate.execute(status -> {
+            assertThat(employeeRepository.lockByIdIn(ids)).containsExactlyElementsOf(ids);
+            CompletableFuture<Integer> concurrent = CompletableFuture.supplyAsync(() ->
+                    jdbcTemplate.update("update employee set name = 'Renamed Meanwhile' where id = ?", ids.get(0)));
+            // the write waits for the lock instead of changing the row under the batch
+            assertThatThrownBy(() -> concurrent.get(200, TimeUnit.MILLISECONDS))
+                    .isInstanceOf(TimeoutException.class);
+            return concurrent;
+        });
+
+        assertThat(rename.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+
+    @Test
+    void mergeIntoItselfIsRejected() {
+        Long id = createDepartment("Merge Self");
+
+        assertThatThrownBy(() -> reorganizationService.mergeDepartment(id, id))
+                .isInstanceOf(InvalidReassignmentException.class);
+    }
+
+    @Test
+    void cascadeDeletesTheEmployeesInBatches() {
+        Long id = createDepartment("Cascade");
+        List<Long> ids = createEmployees(id, 3);
+
+        ReassignResultDto result = reorganizationService.deleteDepartment(id, DepartmentDeletionMode.CASCADE, null, null);
+
+        assertThat(result.getDeleted()).isEqualTo(3);
+        assertThat(result.getDepartmentsDeleted()).isEqualTo(1);
+
+        assertThat(departmentRepository.existsById(id)).isFalse();
+        assertThat(employeeRepository.findAllById(ids)).isEmpty();
+        assertThat(employeeNameIndex.search("Reorganized", 0, 10_000)).doesNotContainAnyElementsOf(ids);
+        assertThat(outboxEventRepository.findAll().stream()
+                .filter(event -> ids.contains(event.getEntityId()))
+                .filter(event -> event.getAction() == AuditAction.DELETE))
+                .hasSize(3);
+    }
+
+    @Test
+    void orphanKeepsTheEmployeesWithoutDepartment() {
+        Long id = createDepartment("Orphan");
+        List<Long> ids = createEmployees(id, 3);
+
+        ReassignResultDto result = reorganizationService.deleteDepartment(id, DepartmentDeletionMode.ORPHAN, null, null);
+
+        assertThat(result.getMoved()).isEqualTo(3);
+        assertThat(result.getStatements()).isEqualTo(2);
+        assertThat(departmentRepository.existsById(id)).isFalse();
+        assertThat(employeeRepository.findSummariesByIdIn(ids))
+                .hasSize(3)
+                .allSatisfy(employee -> assertThat(employee.departmentId()).isNull());
+    }
+
+    @Test
+    void asyncDeletionRunsAsAJob() throws InterruptedException {
+        Long sourceId = createDepartment("Async Source");
+        Long targetId = createDepartment("Async Target");
+        createEmployees(sourceId, 5);
+
+        JobDto job = reorganizationService.deleteDepartmentAsync(sourceId,
+                DepartmentDeletionMode.REASSIGN, targetId, null);
+        assertThat(job.getTotal()).isEqualTo(5);
+
+        for (int attempt = 0; attempt < 50 && !"COMPLETED".equals(job.getStatus()); attempt++) {
+            Thread.sleep(100);
+            job = jobService.getJob(job.getId());
+        }
+
+        assertThat(job.getStatus()).isEqualTo("COMPLETED");
+        assertThat(job.getProcessed()).isEqualTo(5);
+        assertThat(job.getFinishedAt()).isNotNull();
+        assertThat(departmentRepository.existsById(sourceId)).isFalse();
+        assertThat(employeeRepository.countByDepartmentId(targetId)).isEqualTo(5);
+    }
+
+    @Test
+    void reassignWithoutTargetIsRejected() {
+        Long id = createDepartment("No Target");
+
+        assertThatThrownBy(() -> reorganizationService.deleteDepartment(id, DepartmentDeletionMode.REASSIGN, null, null))
+                .isInstanceOf(InvalidReassignmentException.class);
+        assertThat(departmentRepository.existsById(id)).isTrue();
+    }
+
+    private Long createDepartment(String name) {
+        DepartmentDto dto = new DepartmentDto();
+        dto.setName(name);
+        return departmentService.createDepartment(dto).getId();
+    }
+
+    private List<Long> createEmployees(Long departmentId, int count) {
+        return transactionTemplate.execute(status -> {
+            Department department = departmentRepository.getReferenceById(departmentId);
+            return IntStream.range(0, count)
+                    .mapToObj(i -> {
+                        Employee employee = new Employee();
+                        employee.setName("Reorganized " + departmentId + "-" + i);
+                        employee.setDepartment(department);
+                        return employeeRepository.save(employee).getId();
+                    })
+                    .toList();
+        });
+    }
+}
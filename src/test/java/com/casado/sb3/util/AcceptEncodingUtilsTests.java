@@ -0,0 +1,27 @@
+package com.casado.sb3.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcceptEncodingUtilsTests {
+
+    @Test
+    void gzipIsAcceptedWithAPositiveQuality() {
+        assertThat(AcceptEncodingUtils.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(AcceptEncodingUtils.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(AcceptEncodingUtils.acceptsGzip("x-gzip")).isTrue();
+        assertThat(AcceptEncodingUtils.acceptsGzip("identity, *;q=0.1")).isTrue();
+    }
+
+    @Test
+    void gzipIsRefusedWithZeroQualityOrWhenNotOffered() {
+        assertThat(AcceptEncodingUtils.acceptsGzip(null)).isFalse();
+        assertThat(AcceptEncodingUtils.acceptsGzip("identity")).isFalse();
+        assertThat(AcceptEncodingUtils.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(AcceptEncodingUtils.acceptsGzip("gzip; q=0.000, deflate")).isFalse();
+        assertThat(AcceptEncodingUtils.acceptsGzip("*;q=1, gzip;q=0")).isFalse();
+        assertThat(AcceptEncodingUtils.acceptsGzip("*;q=0")).isFalse();
+        assertThat(AcceptEncodingUtils.acceptsGzip("gzip;q=high")).isFalse();
+    }
+}